@@ -0,0 +1,249 @@
+/**
+ * Batch engine for the similarity values of every pair of web pages in a corpus. The TF-IDF vectors are packed into
+ * primitive arrays, and pairs are scored tile by tile: a tile of rows against a tile of columns, whose packed terms
+ * stay in cache while every row of the tile is scored against them. Each row is scattered into a dense term-indexed
+ * array once per column tile, so a pair is scored by gathering the row's weights at the column's terms, a loop with no
+ * branches that the JDK Vector API can run in SIMD lanes.
+ *
+ * Pairs are scored by scalar loops, whose values equal URL.generateURLSimilarityVal exactly. The Vector API kernel is
+ * opt-in: it is compiled from the vector/ source root, and used by an engine constructed as vectorized when the
+ * jdk.incubator.vector module is present (--add-modules jdk.incubator.vector). Vector lanes sum in float, so a pair
+ * within float rounding of eps may fall on the other side of it.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+public class AllPairsSimilarity {
+    private static final int ROW_TILE = 64;             // Rows scored together, one task
+    private static final int COLUMN_TILE = 512;         // Columns whose packed vectors are kept in cache together
+    private static final String VECTOR_KERNEL = "VectorDotKernel";     // Kernel using the JDK Vector API
+
+    private final URL [] documents;         // URL database, rows and columns refer to their position
+    private final long idfVersion;          // IDF version the weights were computed against
+    private final int [] offsets;           // Terms of document d are [offsets[d], offsets[d + 1])
+    private final int [] terms;             // Term IDs of every document, packed
+    private final float [] weights;         // Term weights of every document, parallel to terms
+    private final int termCount;            // One past the largest term ID
+    private final Kernel kernel;            // Gather dot product
+    private final ThreadLocal<float []> dense;     // Each thread's scattered row, all zero between rows
+
+
+
+
+    /**
+     * Dot product of a dense row and a packed sparse column
+     */
+    interface Kernel {
+        /**
+         * Gather the dense row at the column's terms and sum the products
+         * @param row dense row, indexed by term ID
+         * @param terms packed term IDs
+         * @param weights packed term weights
+         * @param from first term of the column
+         * @param to term after the column's last
+         * @return dot product
+         */
+        double dot(float [] row, int [] terms, float [] weights, int from, int to);
+    }
+
+
+
+
+    /**
+     * Construct an engine over a corpus, scoring pairs with scalar loops
+     * @param documents URL database
+     */
+    public AllPairsSimilarity(URL [] documents){
+        this(documents, false);
+    }
+
+
+
+
+    /**
+     * Construct an engine over a corpus
+     * @param documents URL database
+     * @param vectorized whether to use the Vector API kernel when it is compiled and its module is present, scalar
+     *                   loops otherwise
+     */
+    public AllPairsSimilarity(URL [] documents, boolean vectorized){
+        this.documents = documents;
+        this.idfVersion = IDF.getVersion();
+        DocumentVector [] vectors = new DocumentVector[documents.length];
+        Arrays.parallelSetAll(vectors, i -> documents[i].getVector());
+
+        // Pack the vectors
+        offsets = new int[documents.length + 1];
+        int maxTerm = -1;
+        for(int i0 = 0; i0 < vectors.length; i0++){
+            int [] vectorTerms = vectors[i0].getTerms();
+            offsets[i0 + 1] = offsets[i0] + vectorTerms.length;
+            if(vectorTerms.length > 0) maxTerm = Math.max(maxTerm, vectorTerms[vectorTerms.length - 1]);
+        }
+        terms = new int[offsets[documents.length]];
+        weights = new float[offsets[documents.length]];
+        for(int i1 = 0; i1 < vectors.length; i1++){
+            System.arraycopy(vectors[i1].getTerms(), 0, terms, offsets[i1], offsets[i1 + 1] - offsets[i1]);
+            System.arraycopy(vectors[i1].getWeights(), 0, weights, offsets[i1], offsets[i1 + 1] - offsets[i1]);
+        }
+        termCount = maxTerm + 1;
+        dense = ThreadLocal.withInitial(() -> new float[termCount]);
+        kernel = vectorized ? loadKernel() : new ScalarKernel();
+    }
+
+
+
+
+    /**
+     * Eps-neighborhood graph of the corpus, keeping only the pairs whose similarity value is at least eps
+     * @param eps Value compared against similarity metric
+     * @return the neighborhood graph, for DBSCAN.dbScan or ParallelDBSCAN.dbScan
+     */
+    public NeighborhoodGraph neighborhoodGraph(double eps){
+        int [][] rows = new int[documents.length][];
+        int [] sizes = new int[documents.length];
+        forEachRowTile((p, q, score) -> {
+            if(score < eps) return;
+            // Only the task of p's tile adds to row p
+            if(rows[p] == null) rows[p] = new int[8];
+            else if(sizes[p] == rows[p].length) rows[p] = Arrays.copyOf(rows[p], sizes[p] * 2);
+            rows[p][sizes[p]++] = q;
+        });
+        for(int i = 0; i < rows.length; i++){
+            rows[i] = (rows[i] == null) ? new int[0] : Arrays.copyOf(rows[i], sizes[i]);
+        }
+        return NeighborhoodGraph.fromRows(documents, eps, idfVersion, false, rows);
+    }
+
+
+
+
+    /**
+     * Full similarity matrix of the corpus, only suited to corpora small enough for n * n floats
+     * @return matrix[p][q], the similarity value of web pages p and q
+     */
+    public float [][] matrix(){
+        float [][] matrix = new float[documents.length][documents.length];
+        forEachRowTile((p, q, score) -> {
+            matrix[p][q] = (float)score;
+            matrix[q][p] = (float)score;
+        });
+        return matrix;
+    }
+
+
+
+
+    /**
+     * Whether pairs are scored with the Vector API
+     * @return true if the Vector API kernel is in use
+     */
+    public boolean isVectorized(){ return !(kernel instanceof ScalarKernel); }
+
+
+
+
+    /**
+     * IDF version the engine was built against
+     * @return IDF version the weights were computed against
+     */
+    public long getIdfVersion(){ return idfVersion; }
+
+
+
+
+    /**
+     * Receives the similarity value of a pair
+     */
+    private interface PairSink {
+        /**
+         * Receive a pair, p is not after q
+         * @param p row document
+         * @param q column document
+         * @param score similarity value
+         */
+        void accept(int p, int q, double score);
+    }
+
+
+
+
+    /**
+     * Score every pair p <= q once, a task per row tile, each scanning its column tiles in ascending order so a row's
+     * pairs arrive with ascending q. Interrupting the calling thread stops the tiles not yet started
+     * @param sink receives every pair
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    private void forEachRowTile(PairSink sink){
+        int tiles = (documents.length + ROW_TILE - 1) / ROW_TILE;
+        Thread caller = Thread.currentThread();
+        IntStream.range(0, tiles).parallel().forEach(tile -> {
+            if(caller.isInterrupted()) throw new CancellationException("Scoring interrupted");
+            int rowStart = tile * ROW_TILE, rowEnd = Math.min(documents.length, rowStart + ROW_TILE);
+            float [] row = dense.get();
+            for(int columnStart = rowStart; columnStart < documents.length; columnStart += COLUMN_TILE){
+                int columnEnd = Math.min(documents.length, columnStart + COLUMN_TILE);
+                for(int p = rowStart; p < rowEnd; p++){
+                    scatter(row, p, false);
+                    for(int q = Math.max(p, columnStart); q < columnEnd; q++){
+                        sink.accept(p, q, kernel.dot(row, terms, weights, offsets[q], offsets[q + 1]));
+                    }
+                    scatter(row, p, true);
+                }
+            }
+        });
+    }
+
+
+
+
+    /**
+     * Scatter a document's weights into a dense row, or clear them again
+     * @param row dense row, indexed by term ID
+     * @param doc document scattered
+     * @param clear whether to zero the document's terms instead
+     */
+    private void scatter(float [] row, int doc, boolean clear){
+        for(int i = offsets[doc]; i < offsets[doc + 1]; i++) row[terms[i]] = clear ? 0 : weights[i];
+    }
+
+
+
+
+    /**
+     * Load the Vector API kernel, which is only on the class path when vector/ was compiled, and only links when the
+     * jdk.incubator.vector module is present
+     * @return the Vector API kernel, or the scalar kernel if it is missing or does not link
+     */
+    private static Kernel loadKernel(){
+        try {
+            return (Kernel)Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return new ScalarKernel();
+        }
+    }
+
+
+
+
+    /**
+     * Kernel summing in double one term at a time, in the same order as DocumentVector.dot
+     */
+    private static class ScalarKernel implements Kernel {
+        /**
+         * Gather the dense row at the column's terms and sum the products
+         */
+        @Override
+        public double dot(float [] row, int [] terms, float [] weights, int from, int to){
+            double returnVal = 0;
+            for(int i = from; i < to; i++) returnVal += (double)row[terms[i]] * weights[i];
+            return returnVal;
+        }
+    }
+}
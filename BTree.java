@@ -7,99 +7,319 @@
  * @citation http://staff.ustc.edu.cn/~csli/graduate/algorithms/book6/chap19.htm
  */
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
 
 public class BTree implements Serializable {
-    private static final int MAX_LENGTH = 198000;
+    private static final long serialVersionUID = 1L;   // Serialized form, changed only on purpose
+    private static final int INITIAL_NODES = 4;        // Nodes a new tree has room for before it grows
+    public static final int DEFAULT_ORDER = BTree_Node.orderForNodeSize(BTree_Node.PAGE_SIZE);  // Fills a 4 KiB page
+    public static final double DEFAULT_FILL_FACTOR = 1.0;  // Bulk loaded nodes are packed full
     public final static String TREE_PATH = System.getProperty("user.dir").concat("/src/TREES/");
 
-    private byte [] tree;
+    private transient ByteBuffer tree;      // Node storage, a heap array or a mapping of the tree's file
+    private String name;                    // Identifies the tree, normally its URL
+    private String filename;                // Name of the tree's file in TREE_PATH, null until the tree is mapped
     private int treeSize, rootPosition, totalKeyCount, totalWordCount;
+    private int nextPosition;               // Bump pointer, address of the next node to allocate
+    private int order;                      // T: max number of keys in a node
+    private int nodeSize;                   // Bytes per node, aligned to cache lines or pages
 
 
 
 
     /**
-     * Construct an empty B-Tree
+     * Construct an empty B-Tree whose nodes fill a 4 KiB page, held on the heap until it is mapped
+     * @param filename Identifies the tree, normally its URL
      */
     public BTree(String filename){
-        treeSize = 4000;
-        tree = new byte[treeSize];
-        BTree_Node root = new BTree_Node();
+        this(filename, DEFAULT_ORDER);
+    }
+
+
+
+
+    /**
+     * Construct an empty B-Tree, held on the heap until it is mapped
+     * @param filename Identifies the tree, normally its URL
+     * @param order T: max number of keys in a node, at least 3
+     */
+    public BTree(String filename, int order){
+        if(order < 3) throw new IllegalArgumentException("B-Tree order must be at least 3: " + order);
+        this.order = order;
+        nodeSize = BTree_Node.nodeSize(order);
+        treeSize = INITIAL_NODES * nodeSize;
+        tree = ByteBuffer.wrap(new byte[treeSize]);
+        BTree_Node root = new BTree_Node(order);
         rootPosition = 0;
+        nextPosition = nodeSize;
         totalKeyCount = 0;
         totalWordCount = 0;
-        System.arraycopy(root.array(),0,tree,0,root.array().length);
+        this.name = filename;
+        this.filename = null;
+        tree.put(0, root.array());
     }
 
 
 
 
     /**
-     * Construct a B-Tree
+     * Construct a B-Tree, held on the heap until it is mapped
      */
-    public BTree(String filename, byte [] tree, int rootPosition, int totalKeyCount, int totalWordCount){
+    public BTree(String filename, int order, byte [] tree, int rootPosition, int totalKeyCount, int totalWordCount){
+        this.order = order;
+        this.nodeSize = BTree_Node.nodeSize(order);
         this.treeSize = tree.length;
         this.rootPosition = rootPosition;
-        this.tree = tree;
+        this.tree = ByteBuffer.wrap(tree);
         this.totalKeyCount = totalKeyCount;
         this.totalWordCount = totalWordCount;
+        this.name = filename;
+        this.filename = null;
+        this.nextPosition = endOfNodes();
     }
 
 
 
 
     /**
-     * Determine the next available position for the node
-     * @param initialPosition Efficient memory usage expect initialPosition to be a multiple of node size
-     * @return Next open node address
+     * Build a B-Tree from a whole set of keys at once, with nodes packed full and the default order
+     * @param filename Identifies the tree, normally its URL
+     * @param termIds term ID of each key, in any order
+     * @param freqs frequency of each key
+     * @param count number of keys
+     * @return the B-Tree holding the keys, held on the heap until it is mapped
+     */
+    public static BTree bulkLoad(String filename, int [] termIds, int [] freqs, int count){
+        return bulkLoad(filename, termIds, freqs, count, DEFAULT_ORDER, DEFAULT_FILL_FACTOR);
+    }
+
+
+
+
+    /**
+     * Build a B-Tree from a whole set of keys at once. The keys are sorted once, then the tree is packed bottom up:
+     * the leaves take runs of keys with one separator key left between neighbouring leaves, the separators become the
+     * keys of the level above, and so on until a single root remains. Keys with the same term ID are merged by
+     * summing their frequencies
+     * @param filename Identifies the tree, normally its URL
+     * @param termIds term ID of each key, in any order
+     * @param freqs frequency of each key
+     * @param count number of keys
+     * @param order T: max number of keys in a node, at least 3
+     * @param fillFactor fraction of each node filled, in (0, 1]
+     * @return the B-Tree holding the keys, held on the heap until it is mapped
      */
-    public int allocateNode(int initialPosition){
-        ByteBuffer byteBuffer = ByteBuffer.wrap(tree);
-        char activeFlag = '@';
-
-        for(int i = initialPosition; i < MAX_LENGTH; i += 198) {
-            // Double size of tree when appropriate
-            if (i + 397 > treeSize) {
-                increaseTreeSize();
-                byteBuffer.clear();
-                byteBuffer = ByteBuffer.wrap(tree);
+    public static BTree bulkLoad(String filename, int [] termIds, int [] freqs, int count, int order,
+                                 double fillFactor){
+        if(order < 3) throw new IllegalArgumentException("B-Tree order must be at least 3: " + order);
+        if(!(fillFactor > 0 && fillFactor <= 1)) throw new IllegalArgumentException("Bad fill factor: " + fillFactor);
+        int fill = Math.max(2, Math.min(order, (int)Math.round(order * fillFactor)));
+
+        // Sort the keys as term ID-frequency longs, term IDs are never negative
+        long [] keys = new long[count];
+        for(int i0 = 0; i0 < count; i0++) keys[i0] = ((long)termIds[i0] << 32) | (freqs[i0] & 0xFFFFFFFFL);
+        Arrays.sort(keys);
+
+        // Merge duplicate term IDs
+        int keyCount = 0, wordCount = 0;
+        for(int i1 = 0; i1 < count; i1++){
+            if(keyCount > 0 && (keys[keyCount - 1] >>> 32) == (keys[i1] >>> 32)) keys[keyCount - 1] += (int)keys[i1];
+            else keys[keyCount++] = keys[i1];
+            wordCount += (int)keys[i1];
+        }
+
+        // Number of nodes of each level, from the leaves up
+        int [] levelNodes = new int[8];
+        int levels = 0, nodeCount = 0;
+        for(int levelKeys = keyCount; ; ){
+            int nodes = (levelKeys + fill + 1) / (fill + 1);     // ceil((levelKeys + 1) / (fill + 1))
+            if(levels == levelNodes.length) levelNodes = Arrays.copyOf(levelNodes, levels * 2);
+            levelNodes[levels++] = nodes;
+            nodeCount += nodes;
+            if(nodes == 1) break;
+            levelKeys = nodes - 1;
+        }
+
+        int nodeSize = BTree_Node.nodeSize(order);
+        ByteBuffer tree = ByteBuffer.wrap(new byte[nodeCount * nodeSize]);
+        int levelStart = 0;                                         // Index of the level's first node
+        for(int level = 0; level < levels; level++){
+            int nodes = levelNodes[level];
+            int levelKeys = (level == 0) ? keyCount : levelNodes[level - 1] - 1;
+            int nodeKeys = levelKeys - (nodes - 1);                 // Keys kept in this level's nodes
+            int parentStart = levelStart + nodes;
+            long [] separators = new long[nodes - 1];
+            int next = 0, child = levelStart - ((level == 0) ? 0 : levelNodes[level - 1]);
+            int parent = 0, parentChildren = 0;                     // Parent of the node, children it has so far
+
+            for(int i2 = 0; i2 < nodes; i2++){
+                // Spread the keys evenly, the first nodes take one extra key
+                int size = nodeKeys / nodes + ((i2 < nodeKeys % nodes) ? 1 : 0);
+                Key [] nodeKeyArray = new Key[order];
+                int [] children = new int[order + 1];
+                for(int i3 = 0; i3 < size; i3++, next++)
+                    nodeKeyArray[i3] = new Key((int)(keys[next] >>> 32), (int)keys[next]);
+                for(int i4 = size; i4 < order; i4++) nodeKeyArray[i4] = BTree_Node.NULL_KEY;
+                if(level > 0){
+                    for(int i5 = 0; i5 <= size; i5++) children[i5] = (child++) * nodeSize;
+                }
+                if(i2 < nodes - 1) separators[i2] = keys[next++];
+
+                // Determine the parent, whose key count was fixed when the level above was sized
+                int parentPosition = BTree_Node.NULL_CHILD;
+                if(level + 1 < levels){
+                    int parentKeys = (nodes - 1) - (levelNodes[level + 1] - 1);
+                    int parentSize = parentKeys / levelNodes[level + 1]
+                            + ((parent < parentKeys % levelNodes[level + 1]) ? 1 : 0);
+                    if(parentChildren == parentSize + 1) {
+                        parent++;
+                        parentChildren = 0;
+                    }
+                    parentChildren++;
+                    parentPosition = (parentStart + parent) * nodeSize;
+                }
+
+                BTree_Node node = new BTree_Node((char)size, (char)((level == 0) ? 1 : 0), parentPosition,
+                        (levelStart + i2) * nodeSize, nodeKeyArray, children);
+                tree.put(node.getPosition(), node.array());
             }
+            keys = separators;
+            levelStart = parentStart;
+        }
+
+        return new BTree(filename, order, tree.array(), (nodeCount - 1) * nodeSize, keyCount, wordCount);
+    }
+
+
+
+
+    /**
+     * Moves the tree into its own memory-mapped file in TREE_PATH, after which nodes are read and written directly
+     * against the mapping. The file name is derived from the name the tree was constructed with plus a random part,
+     * so trees of the same web page, such as one crawled again while the old one is loaded, never share a file. The
+     * file is always new, a file another tree has mapped is never truncated. Files of superseded trees are removed
+     * with deleteFilesExcept
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public void map() throws IOException {
+        if(filename != null) return;
+        Files.createDirectories(Paths.get(TREE_PATH));
+        String tempFilename = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)) + "-" + UUID.randomUUID();
+
+        MappedByteBuffer mapping;
+        try(FileChannel channel = FileChannel.open(treeFile(tempFilename), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, treeSize);
+        }
+        mapping.put(0, tree, 0, treeSize);
+        tree = mapping;
+        filename = tempFilename;
+    }
 
-            activeFlag = byteBuffer.getChar(i);
-            if(activeFlag != '@')
-                return i;
+
+
+
+    /**
+     * Whether the tree is backed by a memory-mapped file
+     * @return true if the tree is mapped
+     */
+    public boolean isMapped(){ return filename != null; }
+
+
+
+
+    /**
+     * Name of the file backing the tree, see map
+     * @return file name in TREE_PATH, or null if the tree is not mapped
+     */
+    public String getFilename(){ return filename; }
+
+
+
+
+    /**
+     * Delete the files in TREE_PATH that back none of the given trees, such as the trees of pages saved by an earlier
+     * crawl. A tree that still maps a deleted file keeps its mapping, only the name is removed
+     * @param keep file names of the trees still in use
+     * @throws IOException if the directory cannot be listed or a file deleted
+     */
+    public static void deleteFilesExcept(Set<String> keep) throws IOException {
+        Path directory = Paths.get(TREE_PATH);
+        if(!Files.isDirectory(directory)) return;
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for(Path file : files){
+                if(!keep.contains(file.getFileName().toString())) Files.deleteIfExists(file);
+            }
         }
-        return 0;
     }
 
 
 
 
     /**
-     * Double's the size of the current array, the element's are unaffected
+     * Allocate the space of a new node. Nodes are never freed, so allocation bumps a pointer past the last node, and
+     * the tree doubles in size whenever it runs out of room
+     * @return Next open node address
      */
-    public void increaseTreeSize(){
-        int tempTreeSize = treeSize + 4000;
-        byte [] copyTree = new byte[tempTreeSize];
-        copyTree = arrayCopy(copyTree,tree);
+    public int allocateNode(){
+        int position = nextPosition;
+        if(position + nodeSize > treeSize)
+            increaseTreeSize(Math.max(2 * treeSize, position + nodeSize));
+        nextPosition += nodeSize;
+        return position;
+    }
+
+
+
+
+    /**
+     * Grows the tree to a new size, the element's are unaffected. A mapped tree extends its file and maps the larger
+     * region
+     * @param tempTreeSize new size of the tree in bytes, larger than the current size
+     */
+    public void increaseTreeSize(int tempTreeSize){
+        if(filename != null) {
+            try(FileChannel channel = FileChannel.open(treeFile(filename), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                tree = channel.map(FileChannel.MapMode.READ_WRITE, 0, tempTreeSize);
+            } catch(IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        } else {
+            tree = ByteBuffer.wrap(Arrays.copyOf(tree.array(), tempTreeSize));
+        }
         treeSize = tempTreeSize;
-        tree = copyTree;
     }
 
 
 
 
     /**
-     * Transfer the contents of smallerArr to largerArr
-     * @param largerArr length is >= smallerArr
-     * @param smallerArr length is <= largerArr
-     * @return largerArr with the transferred elements
+     * Determine the address just past the last active node, for trees built from an existing byte array
+     * @return address of the first free node slot
      */
-    public byte [] arrayCopy(byte [] largerArr, byte [] smallerArr){
-        for(int i = 0; i < smallerArr.length; i++){ largerArr[i] = smallerArr[i]; }
-        return largerArr;
+    private int endOfNodes(){
+        int end = nodeSize;
+        for(int i = 0; i + nodeSize <= treeSize; i += nodeSize) {
+            if(tree.getChar(i) == BTree_Node.ACTIVE_FLAG) end = i + nodeSize;
+        }
+        return end;
     }
 
 
@@ -115,40 +335,42 @@ public class BTree implements Serializable {
         // Generate the node's used for splitting
         BTree_Node parentNode = getNode(parentPos);
         BTree_Node childNode = getNode(childPos);
-        BTree_Node newChildNode = new BTree_Node();
+        BTree_Node newChildNode = new BTree_Node(order);
+        int middle = order / 2;                     // Index of the key moved up into the parent
+        int rightCount = order - middle - 1;        // Keys moved into newChildNode
 
         // Children keys
-        Key [] newChildKeys = new Key[BTree_Node.T];
-        newChildNode.setPosition(allocateNode(childNode.getPosition()));
+        Key [] newChildKeys = new Key[order];
+        newChildNode.setPosition(allocateNode());
         Key [] childKeys = childNode.getKeys();
 
         // newChildNode's leafStatus updated to childNode's leafStatus
         newChildNode.setLeafStatus(childNode.getLeafStatus());
 
         // newChildNode's keyCount set to half full
-        newChildNode.setKeyCount((BTree_Node.T/2));
+        newChildNode.setKeyCount(rightCount);
 
         // newChildNode's parent is set
         newChildNode.setParent(parentNode.getPosition());
 
-        // Transfer 1/2 the Keys from childNode to newChildNode
-        for(int i0 = 0; i0 < (BTree_Node.T/2); i0++){
-            newChildKeys[i0] = childKeys[i0 + (BTree_Node.T/2) + 1];
+        // Transfer the keys right of the middle from childNode to newChildNode
+        for(int i0 = 0; i0 < rightCount; i0++){
+            newChildKeys[i0] = childKeys[i0 + middle + 1];
         }
         newChildNode.setKeys(newChildKeys);
 
-        // Transfer 1/2 the children from childNode to newChildNode
+        // Transfer the children right of the middle from childNode to newChildNode
         if(childNode.getLeafStatus() != 1){
             int [] childChildren = childNode.getChildren();
-            int [] newChildChildren = new int [BTree_Node.T + 1];
-            for(int i1 = 0; i1 <= BTree_Node.T/2; i1++){
-                newChildChildren[i1] = childChildren[i1 + (BTree_Node.T/2) + 1];
+            int [] newChildChildren = new int [order + 1];
+            for(int i1 = 0; i1 <= rightCount; i1++){
+                newChildChildren[i1] = childChildren[i1 + middle + 1];
             }
             newChildNode.setChildren(newChildChildren);
         }
 
         // childNode keyCount set to half full
-        childNode.setKeyCount(BTree_Node.T/2);
+        childNode.setKeyCount(middle);
 
         // Insert newChildNode's position in the parent node
         int [] parentChildren = parentNode.getChildren();
@@ -163,7 +385,7 @@ public class BTree implements Serializable {
         for(int i3 = parentNode.getKeyCount(); i3 > index; i3--){
             parentKeys[i3] = parentKeys[i3-1];
         }
-        parentKeys[index] = childKeys[BTree_Node.T/2];
+        parentKeys[index] = childKeys[middle];
         parentNode.setKeys(parentKeys);
         parentNode.setKeyCount(parentNode.getKeyCount() + 1);
 
@@ -185,9 +407,7 @@ public class BTree implements Serializable {
      * @param node Valid BTree_Node
      */
     public void nodeWrite(BTree_Node node){
-        byte [] arr = node.array();
-        int j = 0, position = node.getPosition();
-        for(int i = position; i < position + 198; i++){ tree[i] = arr[j++]; }
+        tree.put(node.getPosition(), node.array());
     }
 
 
@@ -215,10 +435,9 @@ public class BTree implements Serializable {
      * @return a BTree_Node from a given position
      */
     public BTree_Node getNode(int position){
-        byte [] nodeArr = new byte[198];
-        int j = 0;
-        for(int i = position; i < position + 198; i++){ nodeArr[j++] = tree[i]; }
-        return BTree_Node.node(nodeArr);
+        byte [] nodeArr = new byte[nodeSize];
+        tree.get(position, nodeArr);
+        return BTree_Node.node(nodeArr, order);
     }
 
 
@@ -230,11 +449,11 @@ public class BTree implements Serializable {
      */
     public void keyInsert(Key key){
         BTree_Node originalRoot = getNode(rootPosition);
-        if(originalRoot.getKeyCount() == BTree_Node.T){
-            int [] childrenArray = new int[BTree_Node.T + 1];
+        if(originalRoot.getKeyCount() == order){
+            int [] childrenArray = new int[order + 1];
             childrenArray[0] = originalRoot.getPosition();
-            BTree_Node newRoot = new BTree_Node();
-            rootPosition = allocateNode(0);
+            BTree_Node newRoot = new BTree_Node(order);
+            rootPosition = allocateNode();
             newRoot.setPosition(rootPosition);
             newRoot.setLeafStatus(0);
             newRoot.setKeyCount(0);
@@ -257,7 +476,7 @@ public class BTree implements Serializable {
         int index = node.getKeyCount() - 1;
         Key [] keyArray = node.getKeys();
         if(node.getLeafStatus() == 1){
-            while(index >= 0 && keyArray[index].getWord().compareTo(key.getWord()) > 0){
+            while(index >= 0 && keyArray[index].getTermId() > key.getTermId()){
                 keyArray[index + 1] = keyArray[index];
                 index--;
             }
@@ -269,16 +488,16 @@ public class BTree implements Serializable {
             node.setKeys(keyArray);
             nodeWrite(node);
         } else {
-            while(index >= 0 && keyArray[index].getWord().compareTo(key.getWord()) > 0){
+            while(index >= 0 && keyArray[index].getTermId() > key.getTermId()){
                 index--;
             }
             index++;
             BTree_Node childNode = getNode(node.getChildren()[index]);
-            if(childNode.getKeyCount() == BTree_Node.T) {
+            if(childNode.getKeyCount() == order) {
                 splitChild(node.getPosition(), index, childNode.getPosition());
                 node = getNode(node.getPosition());
                 childNode = getNode(childNode.getPosition());
-                if (keyArray[index].getWord().compareTo(key.getWord()) < 0)
+                if (node.getKeys()[index].getTermId() < key.getTermId())
                     index++;
             }
             keyInsertNonfull(getNode(node.getChildren()[index]),key);
@@ -333,20 +552,7 @@ public class BTree implements Serializable {
      * @return returns the frequency value of a key if found, otherwise returns 0
      */
     public int search(Key key){
-        BTree_Node tempNode = getNode(rootPosition);
-        int index = 0;
-        // Determine Key[index] less than or equal to the parameter
-        while(index < tempNode.getKeyCount() && (key.getWord().compareTo(tempNode.getKeys()[index].getWord()) > 0))
-            index++;
-        // Return word frequency Key[index], if the value matches the parameter
-        if(index < tempNode.getKeyCount() && (key.getWord().compareTo(tempNode.getKeys()[index].getWord()) == 0)) {
-            return tempNode.getKeys()[index].getFreq();
-        }
-        // Returns 0 if key is not found
-        if(tempNode.getLeafStatus() == 1) {
-            return 0;
-        }
-        return search(tempNode.getChildren()[index],key);
+        return search(rootPosition, key);
     }
 
 
@@ -358,25 +564,108 @@ public class BTree implements Serializable {
      * @return returns the frequency value of a key if found, otherwise returns 0
      */
     public int search(int position, Key key) {
-        BTree_Node tempNode = getNode(position);
-        int index = 0;
-        // Determine Key[index] less than or equal to the parameter
-        while (index < tempNode.getKeyCount() && (key.getWord().compareTo(tempNode.getKeys()[index].getWord()) > 0)){
-            index++;
+        return search(position, key.getTermId());
+    }
+
+
+
+
+    /**
+     * Searches through a subtree for a term ID, reading each node in place
+     * @param position Address of the subtree's root
+     * @param termId ID of the word searched for
+     * @return returns the frequency value of the term if found, otherwise returns 0
+     */
+    public int search(int position, int termId) {
+        BTree_NodeView node = new BTree_NodeView(tree, position, order);
+        while(true){
+            // Determine Key[index] greater than or equal to the parameter
+            int index = node.lowerBound(termId);
+
+            // Return word frequency Key[index], if the value matches the parameter
+            if(index < node.getKeyCount() && node.getTermId(index) == termId)
+                return node.getFreq(index);
+
+            // Returns 0 if key is not found
+            if(node.isLeaf()) return 0;
+
+            node.moveTo(node.getChild(index));
         }
-        // Return word frequency Key[index], if the value matches the parameter
-        if (index < tempNode.getKeyCount() && (key.getWord().compareTo(tempNode.getKeys()[index].getWord()) == 0))
-            return tempNode.getKeys()[index].getFreq();
+    }
 
-        // Returns 0 if key is not found
-        if(tempNode.getLeafStatus() == 1) return 0;
 
-        return search(tempNode.getChildren()[index],key);
+
+
+    /**
+     * Copies every key in the BTree in ascending term ID order, reading each node in place
+     * @param termIds receives the term ID of each key, length >= getTotalKeyCount()
+     * @param freqs receives the frequency of each key, length >= getTotalKeyCount()
+     * @return number of keys copied
+     */
+    public int copyKeys(int [] termIds, int [] freqs){
+        BTree_NodeView node = new BTree_NodeView(tree, rootPosition, order);
+        int [] positions = new int[16];     // Path from the root, grown if the tree is deeper
+        int [] states = new int[16];        // Next child to descend into at each level of the path
+        int depth = 0, count = 0;
+        positions[0] = rootPosition;
+        states[0] = 0;
+
+        while(depth >= 0){
+            node.moveTo(positions[depth]);
+            int keyCount = node.getKeyCount();
+
+            // Leaf, copy every key and return to the parent
+            if(node.isLeaf()){
+                for(int i = 0; i < keyCount; i++){
+                    termIds[count] = node.getTermId(i);
+                    freqs[count++] = node.getFreq(i);
+                }
+                depth--;
+                continue;
+            }
+
+            // Inner node, copy the key left of the next child and descend, or return once every child is done
+            int state = states[depth];
+            if(state > keyCount) {
+                depth--;
+                continue;
+            }
+            if(state > 0) {
+                termIds[count] = node.getTermId(state - 1);
+                freqs[count++] = node.getFreq(state - 1);
+            }
+            states[depth] = state + 1;
+            if(++depth == positions.length) {
+                positions = Arrays.copyOf(positions, depth * 2);
+                states = Arrays.copyOf(states, depth * 2);
+            }
+            positions[depth] = node.getChild(state);
+            states[depth] = 0;
+        }
+        return count;
     }
 
 
 
 
+    /**
+     * Retrieve the size of the BTree's node storage
+     * @return size of the tree in bytes
+     */
+    public int getTreeSize(){ return treeSize; }
+
+
+
+
+    /**
+     * Retrieve the order of the BTree
+     * @return T: max number of keys in a node
+     */
+    public int getOrder(){ return order; }
+
+
+
+
     /**
      * Retrieve number of keys in the BTree
      * @return number of keys in the BTree
@@ -391,4 +680,47 @@ public class BTree implements Serializable {
      * @return summation of word frequency in the BTree
      */
     public int getTotalWordCount(){ return totalWordCount; }
-}
\ No newline at end of file
+
+
+
+
+    /**
+     * Path of a tree file
+     * @param name file name within TREE_PATH
+     * @return path of the tree file
+     */
+    private static Path treeFile(String name){
+        return Paths.get(TREE_PATH, name);
+    }
+
+
+
+
+    /**
+     * Serializes the tree's metadata, the nodes are flushed to the tree's file instead of being copied into the stream
+     * @param out stream the tree is written to
+     * @throws IOException if the tree cannot be mapped or written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        if(filename == null) map();
+        ((MappedByteBuffer)tree).force();
+        out.defaultWriteObject();
+    }
+
+
+
+
+    /**
+     * Deserializes the tree's metadata and maps the tree's file, nodes are paged in on first access
+     * @param in stream the tree is read from
+     * @throws IOException if the tree's file cannot be mapped
+     * @throws ClassNotFoundException if a class of the stream cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        try(FileChannel channel = FileChannel.open(treeFile(filename), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            tree = channel.map(FileChannel.MapMode.READ_WRITE, 0, treeSize);
+        }
+    }
+}
@@ -10,11 +10,12 @@ import java.nio.ByteBuffer;
 
 public class BTree_Node {
     static final char ACTIVE_FLAG = '@';                                       // Activated node flag
-    static final int NODE_SIZE = 198;                                          // Node size
+    static final int KEY_OFFSET = 14;                                          // Offset of the first key
+    static final int CACHE_LINE_SIZE = 64;                                     // Small nodes align to cache lines
+    static final int PAGE_SIZE = 4096;                                         // Large nodes align to pages
     static final int NULL_CHILD = -1;                                          // Null child long value
-    static final byte [] NULL_KEY_BYTE = (new Key(".", 0)).array(); // Null key byte array
-    static final Key NULL_KEY = (new Key(".", 0));                  // Null key
-    static final int T=5;                                                      // T: max number of keys
+    static final Key NULL_KEY = (new Key(TermDictionary.NULL_ID, 0));          // Null key
+    static final byte [] NULL_KEY_BYTE = NULL_KEY.array();                     // Null key byte array
 
     private char active;       // Marshalling int, determines portions of the file in use
     private char keyCount;     // Number of key's in Node
@@ -23,6 +24,7 @@ public class BTree_Node {
     private int parent;       // Offset, maps to the parent's locations
     private  int position;     // Offset, maps to the Node's location
     private char leafStatus;   // Distinguishes inner and leaf nodes
+    private final int order;   // T: max number of keys
 
 
 
@@ -45,6 +47,7 @@ public class BTree_Node {
         parent = tempParent;
         position = tempPosition;
         leafStatus = tempLeafStatus;
+        order = tempKeys.length;
     }
 
 
@@ -52,12 +55,14 @@ public class BTree_Node {
 
     /**
      * Constructs default node
+     * @param order T: max number of keys
      */
-    public BTree_Node(){
+    public BTree_Node(int order){
+        this.order = order;
         active = ACTIVE_FLAG;
         keyCount = 0;
-        keys = new Key[T];
-        children = new int[T + 1];
+        keys = new Key[order];
+        children = new int[order + 1];
         parent = NULL_CHILD;
         position = 0;
         leafStatus = 1;
@@ -68,14 +73,16 @@ public class BTree_Node {
 
     /**
      * Constructs a new leaf node
+     * @param order T: max number of keys
      * @param parent Offset of parent Node
      * @param position Offset of current Node
      */
-    public BTree_Node(int parent, int position){
+    public BTree_Node(int order, int parent, int position){
+        this.order = order;
         active = ACTIVE_FLAG;
         keyCount = 0;
-        keys = new Key[T];
-        children = new int[T + 1];
+        keys = new Key[order];
+        children = new int[order + 1];
         this.parent = parent;
         this.position = position;
         leafStatus = 1;
@@ -84,12 +91,50 @@ public class BTree_Node {
 
 
 
+    /**
+     * Offset of the first child in a node
+     * @param order T: max number of keys
+     * @return offset of the first child
+     */
+    static int childOffset(int order){
+        return KEY_OFFSET + (order * Key.KEY_SIZE);
+    }
+
+
+
+
+    /**
+     * Size of a node, rounded up to a whole number of cache lines, or of pages once a node spans half a page
+     * @param order T: max number of keys
+     * @return node size in bytes
+     */
+    static int nodeSize(int order){
+        int size = childOffset(order) + ((order + 1) * 4);
+        int alignment = (size >= PAGE_SIZE / 2) ? PAGE_SIZE : CACHE_LINE_SIZE;
+        return ((size + alignment - 1) / alignment) * alignment;
+    }
+
+
+
+
+    /**
+     * Largest order whose nodes fit in a given size
+     * @param size node size in bytes
+     * @return T: max number of keys that fit
+     */
+    static int orderForNodeSize(int size){
+        return (size - KEY_OFFSET - 4) / (Key.KEY_SIZE + 4);
+    }
+
+
+
+
     /**
      * Convert a BTree_Node into a byte array
-     * @return BTree_Node represented as a 198-Byte array
+     * @return BTree_Node represented as a nodeSize(order)-Byte array
      */
     public byte [] array(){
-        ByteBuffer bb = ByteBuffer.allocate(NODE_SIZE);
+        ByteBuffer bb = ByteBuffer.allocate(nodeSize(order));
 
         bb.putChar(active);
         bb.putChar(keyCount);
@@ -100,17 +145,17 @@ public class BTree_Node {
         // Insert Key value's into the buffer
         for(int i0 = 0; i0 < keyCount; i0++)
             bb.put(keys[i0].array());
-        for(int i1 = keyCount; i1 < T; i1++)
+        for(int i1 = keyCount; i1 < order; i1++)
             bb.put(NULL_KEY_BYTE);
 
         // Insert the children value's into the buffer
         if(leafStatus == 0){
             for(int i2 = 0; i2 <= keyCount; i2++)
                 bb.putInt(children[i2]);
-            for(int i3 = keyCount + 1; i3 <= T; i3++)
+            for(int i3 = keyCount + 1; i3 <= order; i3++)
                 bb.putInt(NULL_CHILD);
         } else {
-            for(int i4 = 0; i4 <= T; i4++)
+            for(int i4 = 0; i4 <= order; i4++)
                 bb.putInt(NULL_CHILD);
         }
 
@@ -123,19 +168,19 @@ public class BTree_Node {
     /**
      * Converts a byte array into a BTree_Node
      * @param buffer a buffer containing a BTree_Node
+     * @param order T: max number of keys
      * @return a BTree_Node, if buffer is invalid returns null
      */
-    public static BTree_Node node(byte [] buffer){
+    public static BTree_Node node(byte [] buffer, int order){
         char tempActive;
         char tempKeyCount;
         char tempLeafStatus;
         int tempParent;
         int tempPosition;
-        Key [] tempKeys = new Key[T];
-        int [] tempChildren = new int[T + 1];
-        byte [] keyBuffer = new byte[32];
-        ByteBuffer byteBuffer = ByteBuffer.allocate(NODE_SIZE);
-        byteBuffer.put(buffer);
+        Key [] tempKeys = new Key[order];
+        int [] tempChildren = new int[order + 1];
+        int childOffset = childOffset(order);
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
 
         // Determine byte array's validity
         tempActive = byteBuffer.getChar(0);
@@ -148,18 +193,15 @@ public class BTree_Node {
         tempPosition = byteBuffer.getInt(10);
 
         // Determine keys
-        for(int i0 = 0; i0 < T; i0++){
+        for(int i0 = 0; i0 < order; i0++){
             if(i0 < tempKeyCount) {
-                int keyIndex = (14 + (i0 * 32));
-                for (int i1 = keyIndex; i1 < (keyIndex + 32); i1++) {
-                    keyBuffer[i1 - keyIndex] = byteBuffer.get(i1);
-                }
-                tempKeys[i0] = Key.key(keyBuffer);
+                int keyIndex = KEY_OFFSET + (i0 * Key.KEY_SIZE);
+                tempKeys[i0] = new Key(byteBuffer.getInt(keyIndex), byteBuffer.getInt(keyIndex + 4));
             } else { tempKeys[i0] = NULL_KEY; }
         }
         // Determine children
-        for(int i2 = 0; i2 <= T; i2++){
-            int childrenIndex = 174 + (i2 * 4);
+        for(int i2 = 0; i2 <= order; i2++){
+            int childrenIndex = childOffset + (i2 * 4);
             tempChildren[i2] = byteBuffer.getInt(childrenIndex);
         }
 
@@ -180,6 +222,17 @@ public class BTree_Node {
 
 
 
+    /**
+     * Max number of keys in node
+     * @return T: max number of keys
+     */
+    public int getOrder() {
+        return order;
+    }
+
+
+
+
     /**
      * Whether a node is a leaf or an inner node
      * @return 1 if leaf, 0 if inner
@@ -0,0 +1,123 @@
+/**
+ * Flyweight view of a node stored in a B-Tree's buffer. Reads the key count, leaf status, keys and children at their
+ * fixed offsets, so a traversal can move one view from node to node without copying bytes or building Key objects.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.nio.ByteBuffer;
+
+public class BTree_NodeView {
+    private final ByteBuffer buffer;    // Buffer holding the tree's nodes
+    private final int childOffset;      // Offset of the first child within a node
+    private int position;               // Offset of the node currently viewed
+
+
+
+
+    /**
+     * Construct a view over a tree's buffer
+     * @param buffer Buffer holding the tree's nodes
+     * @param position Offset of the first node to view
+     * @param order T: max number of keys in a node of the tree
+     */
+    public BTree_NodeView(ByteBuffer buffer, int position, int order){
+        this.buffer = buffer;
+        this.childOffset = BTree_Node.childOffset(order);
+        this.position = position;
+    }
+
+
+
+
+    /**
+     * View another node of the same tree
+     * @param tempPosition Offset of the node
+     * @return this view
+     */
+    public BTree_NodeView moveTo(int tempPosition){
+        position = tempPosition;
+        return this;
+    }
+
+
+
+
+    /**
+     * Offset of the node currently viewed
+     * @return offset of the node currently viewed
+     */
+    public int getPosition(){ return position; }
+
+
+
+
+    /**
+     * Number of elements in node
+     * @return Number of elements in node
+     */
+    public int getKeyCount(){ return buffer.getChar(position + 2); }
+
+
+
+
+    /**
+     * Whether a node is a leaf
+     * @return true if leaf, false if inner
+     */
+    public boolean isLeaf(){ return buffer.getChar(position + 4) == 1; }
+
+
+
+
+    /**
+     * Term ID of a key
+     * @param index key index, less than getKeyCount()
+     * @return term ID of the key
+     */
+    public int getTermId(int index){ return buffer.getInt(position + BTree_Node.KEY_OFFSET + (index * Key.KEY_SIZE)); }
+
+
+
+
+    /**
+     * Frequency of a key
+     * @param index key index, less than getKeyCount()
+     * @return frequency of the key
+     */
+    public int getFreq(int index){
+        return buffer.getInt(position + BTree_Node.KEY_OFFSET + (index * Key.KEY_SIZE) + 4);
+    }
+
+
+
+
+    /**
+     * Position of a child
+     * @param index child index, at most getKeyCount()
+     * @return offset of the child node
+     */
+    public int getChild(int index){ return buffer.getInt(position + childOffset + (index * 4)); }
+
+
+
+
+    /**
+     * Determine the index of the first key whose term ID is greater than or equal to a term ID
+     * @param termId term ID searched for
+     * @return index of the first key >= termId, getKeyCount() if every key is smaller
+     */
+    public int lowerBound(int termId){
+        int low = 0, high = getKeyCount();
+
+        // Binary search, keys are ascending within a node
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(getTermId(middle) < termId) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+}
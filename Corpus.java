@@ -0,0 +1,568 @@
+/**
+ * Long-lived, in-memory corpus of the saved web pages. The pages, their TF-IDF vectors, the term dictionary and the
+ * IDF table are loaded once and kept resident, so queries are answered from memory. refresh() reloads only what
+ * changed on disk: the snapshot as a whole, or single page files by modification time.
+ *
+ * Page trees are only needed to rebuild vectors once the IDF table changes, so they are held under a memory budget:
+ * the least recently used trees are released past it, and read back from disk when next needed.
+ *
+ * Pages are put and removed in place, adjusting the IDF table page by page instead of rebuilding it. Such edits live
+ * in memory until save() writes a snapshot, a refresh that reloads from disk replaces them.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class Corpus {
+    public static final long DEFAULT_TREE_BUDGET = 256L << 20;         // Bytes of page trees kept resident
+
+    private final int fileCount;                    // Number of per page files, when there is no snapshot
+    private final long treeBudget;                  // Bytes of page trees kept resident
+    private final LinkedHashMap<URL, Long> residentTrees =            // Resident trees and their size, LRU order
+            new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;                     // Total size of the resident trees
+
+    private volatile URL [] documents = new URL[0];         // URL database
+    private volatile SimilaritySearch search;               // Index over the documents, null until first query
+    private volatile long searchVersion = -1;               // IDF version the index was built against
+    private volatile NeighborhoodGraph graph;               // Graph of the last eps clustered, null until then
+    private volatile MinHashIndex minHash;                  // Approximate index over the documents, null until used
+    private volatile int minHashBands = MinHashIndex.DEFAULT_BANDS;     // Bands of a MinHash signature
+    private volatile int minHashRows = MinHashIndex.DEFAULT_ROWS;       // Min-hashes per band
+    private volatile boolean vectorized;                    // Whether exact graphs are scored by the Vector API kernel
+    private CorpusSnapshot snapshot;                        // Snapshot the documents came from, or null
+    private long snapshotModified;                          // Modification time of the loaded snapshot
+    private long [] fileModified = new long[0];             // Modification time of each loaded page file
+    private volatile int [] sourceIndices = new int[0];     // Snapshot or file index of each document, -1 if put
+    private HashMap<String, Integer> positions = new HashMap<>();  // Position of each document, by address
+    private long idfModified, dictionaryModified;           // Modification times of the loaded IDF files
+
+
+
+
+    /**
+     * Construct a corpus of the saved web pages with the default tree budget
+     * @param fileCount number of per page files to load when there is no snapshot
+     */
+    public Corpus(int fileCount){
+        this(fileCount, DEFAULT_TREE_BUDGET);
+    }
+
+
+
+
+    /**
+     * Construct a corpus of the saved web pages
+     * @param fileCount number of per page files to load when there is no snapshot
+     * @param treeBudget bytes of page trees kept resident, older trees are released past it
+     */
+    public Corpus(int fileCount, long treeBudget){
+        this.fileCount = fileCount;
+        this.treeBudget = treeBudget;
+        refresh();
+    }
+
+
+
+
+    /**
+     * Bring the corpus up to date with the files on disk. A changed snapshot is loaded whole, otherwise only page
+     * files whose modification time changed are read again
+     * @return true if anything was reloaded
+     */
+    public synchronized boolean refresh(){
+        Path snapshotPath = Paths.get(SaveLoad.SNAPSHOT_PATH);
+        long modified = modified(snapshotPath);
+
+        if(modified != 0) {
+            if(modified == snapshotModified) return false;
+            try {
+                CorpusSnapshot tempSnapshot = CorpusSnapshot.open(snapshotPath);
+                tempSnapshot.loadTerms();
+                URL [] tempDocuments = tempSnapshot.readDocuments();
+                snapshotModified = modified;
+                int [] tempIndices = new int[tempDocuments.length];
+                for(int i = 0; i < tempIndices.length; i++) tempIndices[i] = i;
+                install(tempDocuments, tempIndices, tempSnapshot);
+                return true;
+            } catch(IOException ex) {
+                ex.printStackTrace();
+                if(snapshot != null) return false;
+            }
+        }
+        return refreshFiles();
+    }
+
+
+
+
+    /**
+     * Bring the corpus up to date with the per page files, reading only the changed ones. The IDF table is counted
+     * again from the documents installed, so it drops the edits of put and remove along with them
+     * @return true if anything was reloaded
+     */
+    private boolean refreshFiles(){
+        boolean changed = false;
+
+        // The dictionary and IDF table are saved along with the page files
+        long tempDictionaryModified = modified(Paths.get(SaveLoad.DICTIONARY_PATH));
+        long tempIdfModified = modified(Paths.get(SaveLoad.IDF_PATH));
+        if(tempDictionaryModified != dictionaryModified || tempIdfModified != idfModified) {
+            TermDictionary.loadDictionary();
+            dictionaryModified = tempDictionaryModified;
+            idfModified = tempIdfModified;
+            changed = true;
+        }
+
+        // Keep unchanged documents, find changed and new files
+        URL [] byFile = new URL[fileCount];
+        for(int i0 = 0; snapshot == null && i0 < sourceIndices.length; i0++){
+            if(sourceIndices[i0] >= 0) byFile[sourceIndices[i0]] = documents[i0];
+        }
+        long [] tempModified = new long[fileCount];
+        int [] changedFiles = new int[fileCount];
+        int changedCount = 0;
+        for(int i1 = 0; i1 < fileCount; i1++){
+            tempModified[i1] = modified(Paths.get(SaveLoad.URL_PATH, Integer.toString(i1)));
+            long previous = (i1 < fileModified.length) ? fileModified[i1] : 0;
+            if(tempModified[i1] != previous || (byFile[i1] == null && tempModified[i1] != 0)) {
+                changed = true;
+                byFile[i1] = null;
+                if(tempModified[i1] != 0) changedFiles[changedCount++] = i1;
+            }
+        }
+        if(!changed) return false;
+
+        // Read the changed files in parallel, failures are reported and left out
+        LoadResult result = SaveLoad.loadURLS(Arrays.copyOf(changedFiles, changedCount));
+        for(int i2 = 0; i2 < result.getURLs().length; i2++) byFile[result.getIndex(i2)] = result.getURLs()[i2];
+        for(int i3 = 0; i3 < result.getFailureCount(); i3++){
+            System.err.println("Could not load URL " + result.getFailedIndex(i3) + ": " + result.getFailure(i3));
+        }
+        int loaded = 0;
+        for(URL url : byFile) if(url != null) loaded++;
+
+        URL [] tempDocuments = new URL[loaded];
+        int [] tempIndices = new int[loaded];
+        loaded = 0;
+        for(int i4 = 0; i4 < fileCount; i4++){
+            if(byFile[i4] == null) continue;
+            tempDocuments[loaded] = byFile[i4];
+            tempIndices[loaded++] = i4;
+        }
+        fileModified = tempModified;
+        snapshotModified = 0;
+        countDocuments(tempDocuments);
+        install(tempDocuments, tempIndices, null);
+        return true;
+    }
+
+
+
+
+    /**
+     * The IDF table becomes the count of a set of documents, each page once and each of its words once
+     * @param tempDocuments URL database
+     */
+    private static void countDocuments(URL [] tempDocuments){
+        int [] appearances = new int[TermDictionary.size()];
+        for(URL url : tempDocuments){
+            for(int termId : url.getTermIds()){
+                if(termId >= appearances.length) appearances = Arrays.copyOf(appearances, termId * 2 + 1);
+                appearances[termId]++;
+            }
+        }
+        IDF.load(tempDocuments.length, appearances);
+    }
+
+
+
+
+    /**
+     * Make a set of documents the corpus, attaching each to the tree budget. Documents of the old set that are not
+     * kept are detached first, while their trees can still be read back from the old files
+     * @param tempDocuments URL database
+     * @param tempIndices snapshot or page file index of each document
+     * @param tempSnapshot snapshot the documents come from, or null for page files
+     */
+    private void install(URL [] tempDocuments, int [] tempIndices, CorpusSnapshot tempSnapshot){
+        Set<URL> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(Arrays.asList(tempDocuments));
+        for(URL url : documents) if(!kept.contains(url)) detach(url);
+
+        synchronized(residentTrees) {
+            residentTrees.clear();
+            residentBytes = 0;
+        }
+        snapshot = tempSnapshot;
+        sourceIndices = tempIndices;
+        HashMap<String, Integer> tempPositions = new HashMap<>(tempDocuments.length * 2);
+        for(int i = 0; i < tempDocuments.length; i++){
+            tempDocuments[i].attach(this, i);
+            tempDocuments[i].getTree();
+            tempDocuments[i].getVector();
+            tempPositions.put(tempDocuments[i].getUrl(), i);
+        }
+        positions = tempPositions;
+        documents = tempDocuments;
+        search = null;
+    }
+
+
+
+
+    /**
+     * Add a web page, or replace the page with the same address, such as when it is crawled again. The IDF table
+     * counts the page once either way: a new page is added to it, a replaced page only changes the words that differ
+     * @param url A URL of a web page
+     * @param wordFreq Filtered word-frequency pairs of the web page, see URL.countWords
+     * @return the page now in the corpus
+     */
+    public synchronized URL put(String url, TermFrequencyMap wordFreq){
+        URL page = URL.page(url, wordFreq);
+        Integer position = positions.get(url);
+        URL [] tempDocuments;
+        int [] tempIndices;
+
+        if(position != null) {
+            IDF.updateDocument(documents[position].getTermIds(), page.getTermIds());
+            tempDocuments = documents.clone();
+            tempIndices = sourceIndices.clone();
+            detach(documents[position]);
+        } else {
+            IDF.addDocument(page.getTermIds());
+            position = documents.length;
+            tempDocuments = Arrays.copyOf(documents, position + 1);
+            tempIndices = Arrays.copyOf(sourceIndices, position + 1);
+            positions.put(url, position);
+        }
+
+        // A put page has no file to be read back from, so its tree is never released
+        tempIndices[position] = -1;
+        tempDocuments[position] = page;
+        sourceIndices = tempIndices;
+        page.attach(this, position);
+        documents = tempDocuments;
+        search = null;
+        return page;
+    }
+
+
+
+
+    /**
+     * Remove a web page, uncounting it in the IDF table
+     * @param url A URL of a web page
+     * @return true if the corpus held the page
+     */
+    public synchronized boolean remove(String url){
+        Integer position = positions.remove(url);
+        if(position == null) return false;
+
+        URL page = documents[position];
+        IDF.removeDocument(page.getTermIds());
+        detach(page);
+
+        // Shift the later documents down
+        URL [] tempDocuments = new URL[documents.length - 1];
+        int [] tempIndices = new int[documents.length - 1];
+        System.arraycopy(documents, 0, tempDocuments, 0, position);
+        System.arraycopy(sourceIndices, 0, tempIndices, 0, position);
+        System.arraycopy(documents, position + 1, tempDocuments, position, tempDocuments.length - position);
+        System.arraycopy(sourceIndices, position + 1, tempIndices, position, tempIndices.length - position);
+        sourceIndices = tempIndices;
+        for(int i = position; i < tempDocuments.length; i++){
+            tempDocuments[i].attach(this, i);
+            positions.put(tempDocuments[i].getUrl(), i);
+        }
+        documents = tempDocuments;
+        search = null;
+        return true;
+    }
+
+
+
+
+    /**
+     * Let a document go from the corpus, before its position is given to another. The document gets its tree back,
+     * read from disk if it was released, so it stays usable on its own, or is left without one if its file is gone
+     * @param page document leaving the corpus
+     */
+    private void detach(URL page){
+        BTree tree;
+        try {
+            tree = page.getTree();
+        } catch(RuntimeException ex) {
+            tree = null;
+        }
+        synchronized(residentTrees) {
+            Long size = residentTrees.remove(page);
+            if(size != null) residentBytes -= size;
+            page.setResidentTree(tree);
+            page.attach(null, -1);
+        }
+    }
+
+
+
+
+    /**
+     * Write the corpus, edits included, to the snapshot it is loaded from
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void save() throws IOException {
+        Path snapshotPath = Paths.get(SaveLoad.SNAPSHOT_PATH);
+        URL [] tempDocuments = documents;
+        CorpusSnapshot.write(snapshotPath, tempDocuments);
+
+        // The documents now come from the new snapshot
+        snapshot = CorpusSnapshot.open(snapshotPath);
+        snapshotModified = modified(snapshotPath);
+        int [] tempIndices = new int[tempDocuments.length];
+        for(int i = 0; i < tempIndices.length; i++) tempIndices[i] = i;
+        sourceIndices = tempIndices;
+    }
+
+
+
+
+    /**
+     * Set the signature shape of the MinHash index, which is rebuilt with it on next use, see MinHashIndex
+     * @param tempBands bands of a signature, more raise recall
+     * @param tempRows min-hashes per band, more cut candidates
+     */
+    public synchronized void setMinHashShape(int tempBands, int tempRows){
+        if(tempBands <= 0 || tempRows <= 0) throw new IllegalArgumentException("bands and rows must be positive");
+        minHashBands = tempBands;
+        minHashRows = tempRows;
+        graph = null;
+    }
+
+
+
+
+    /**
+     * Set whether exact neighborhood graphs are scored with the Vector API kernel, which falls back to scalar loops
+     * when it is not available, see AllPairsSimilarity
+     * @param tempVectorized whether to use the Vector API kernel
+     */
+    public synchronized void setVectorized(boolean tempVectorized){
+        vectorized = tempVectorized;
+        graph = null;
+    }
+
+
+
+
+    /**
+     * Retrieve the URL database
+     * @return the resident documents
+     */
+    public URL [] getDocuments(){ return documents; }
+
+
+
+
+    /**
+     * Determines the k most similar documents to a query by cosine similarity, rebuilding the index only if the IDF
+     * table changed
+     * @param query TF-IDF vector of the query web page
+     * @param k number of web pages to return, must be positive
+     * @return up to k web pages and their cosine similarity values, most similar first
+     */
+    public SimilarityResult [] topK(DocumentVector query, int k){
+        SimilaritySearch tempSearch = search;
+        if(tempSearch == null || searchVersion != IDF.getVersion()) {
+            synchronized(this) {
+                tempSearch = search;
+                long version = IDF.getVersion();
+                if(tempSearch == null || searchVersion != version) {
+                    tempSearch = new SimilaritySearch(documents, true);
+                    search = tempSearch;
+                    searchVersion = version;
+                }
+            }
+        }
+        return tempSearch.topK(query, k);
+    }
+
+
+
+
+    /**
+     * Eps-neighborhood graph of the documents for DBSCAN, kept until the documents, the IDF table or eps change, so
+     * clustering again with another minPts does not score the documents again
+     * @param eps Value compared against similarity metric
+     * @return the neighborhood graph, whose documents are the ones to label
+     */
+    public NeighborhoodGraph neighborhoodGraph(double eps){
+        return neighborhoodGraph(eps, false);
+    }
+
+
+
+
+    /**
+     * Eps-neighborhood graph of the documents for DBSCAN, kept until the documents, the IDF table, eps or the kind of
+     * graph change
+     * @param eps Value compared against similarity metric
+     * @param approximate whether to only score the candidate pairs of the MinHash index, see minHashIndex
+     * @return the neighborhood graph, whose documents are the ones to label
+     */
+    public NeighborhoodGraph neighborhoodGraph(double eps, boolean approximate){
+        NeighborhoodGraph tempGraph = graph;
+        URL [] tempDocuments = documents;
+        if(tempGraph == null || tempGraph.getEps() != eps || tempGraph.getDocuments() != tempDocuments
+                || tempGraph.getIdfVersion() != IDF.getVersion() || tempGraph.isApproximate() != approximate) {
+            tempGraph = approximate ? NeighborhoodGraph.build(minHashIndex(tempDocuments), eps)
+                    : NeighborhoodGraph.build(tempDocuments, eps, vectorized);
+            graph = tempGraph;
+        }
+        return tempGraph;
+    }
+
+
+
+
+    /**
+     * Determines the k most similar documents to a query by cosine similarity among the candidates of the MinHash
+     * index, trading recall for not scanning postings of common words
+     * @param query TF-IDF vector of the query web page
+     * @param k number of web pages to return, must be positive
+     * @return up to k web pages and their cosine similarity values, most similar first
+     */
+    public SimilarityResult [] approximateTopK(DocumentVector query, int k){
+        return minHashIndex(documents).topK(query, k, true);
+    }
+
+
+
+
+    /**
+     * MinHash index over a set of documents, built once per set and signature shape. Signatures depend only on the
+     * documents' terms, so IDF changes keep it
+     * @param tempDocuments the current documents
+     * @return MinHash index over the documents
+     */
+    private MinHashIndex minHashIndex(URL [] tempDocuments){
+        MinHashIndex tempIndex = minHash;
+        int bands = minHashBands, rows = minHashRows;
+        if(tempIndex == null || tempIndex.getDocuments() != tempDocuments || tempIndex.getBands() != bands
+                || tempIndex.getRows() != rows) {
+            tempIndex = new MinHashIndex(tempDocuments, bands, rows);
+            minHash = tempIndex;
+        }
+        return tempIndex;
+    }
+
+
+
+
+    /**
+     * Retrieve the tree of a document, reading it back from disk if it was released
+     * @param url document attached to this corpus
+     * @param index position of the document in the corpus
+     * @return the document's tree
+     */
+    BTree getTree(URL url, int index){
+        synchronized(residentTrees) {
+            BTree tree = url.residentTree();
+            if(sourceIndices[index] < 0) return tree;
+            if(tree != null) {
+                if(residentTrees.get(url) == null) admit(url, tree);
+                return tree;
+            }
+
+            tree = loadTree(index);
+            url.setResidentTree(tree);
+            admit(url, tree);
+            return tree;
+        }
+    }
+
+
+
+
+    /**
+     * Account for a resident tree, releasing the least recently used trees past the budget
+     * @param url document owning the tree
+     * @param tree the resident tree
+     */
+    private void admit(URL url, BTree tree){
+        long size = tree.getTreeSize();
+        residentTrees.put(url, size);
+        residentBytes += size;
+
+        Iterator<Map.Entry<URL, Long>> eldest = residentTrees.entrySet().iterator();
+        while(residentBytes > treeBudget && eldest.hasNext()){
+            Map.Entry<URL, Long> entry = eldest.next();
+            if(entry.getKey() == url) continue;
+            entry.getKey().setResidentTree(null);
+            residentBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+
+
+
+    /**
+     * Read a released tree back from the corpus files
+     * @param index position of the document in the corpus
+     * @return the document's tree
+     */
+    private BTree loadTree(int index){
+        if(snapshot != null) return snapshot.readDocument(sourceIndices[index]).getTree();
+        try {
+            return SaveLoad.readURL(sourceIndices[index]).getTree();
+        } catch(IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch(ClassNotFoundException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+
+
+
+    /**
+     * Total size of the resident page trees
+     * @return bytes of resident trees
+     */
+    public long getResidentTreeBytes(){
+        synchronized(residentTrees) {
+            return residentBytes;
+        }
+    }
+
+
+
+
+    /**
+     * Modification time of a file
+     * @param path the file
+     * @return modification time in milliseconds, 0 if the file does not exist
+     */
+    private static long modified(Path path){
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch(IOException ex) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+/**
+ * Compact binary snapshot of a whole corpus: the term dictionary, every web page's sorted term frequencies, and the
+ * IDF table, in one versioned and checksummed file. The file is laid out as
+ *
+ *   header      magic, version, document and term counts, section offsets, file length, CRC32 of the body
+ *   dictionary  words in sorted order as front coded UTF-8, each followed by its term ID
+ *   documents   per web page: its URL, then its (term ID, frequency) pairs in term ID order, IDs delta coded
+ *   IDF         URL count, then the document frequency of every term ID
+ *   index       offset of each document block, so a single web page can be read without the others
+ *
+ * Integers in the body are varints. A snapshot is written once through a buffered channel, and read by mapping the
+ * file.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+public class CorpusSnapshot {
+    private static final int MAGIC = 0x57504353;            // "WPCS"
+    private static final int VERSION = 1;                   // Format version, bumped on any layout change
+    private static final int HEADER_SIZE = 64;              // Bytes reserved for the header
+    private static final int BUFFER_SIZE = 1 << 20;         // Write buffer size
+
+    private final MappedByteBuffer file;    // Mapping of the snapshot
+    private final int documentCount;        // Number of web pages
+    private final int termCount;            // Number of words in the dictionary
+    private final long dictionaryOffset, documentsOffset, idfOffset, indexOffset;
+
+
+
+
+    /**
+     * Construct a snapshot reader over a validated mapping
+     */
+    private CorpusSnapshot(MappedByteBuffer file, int documentCount, int termCount, long dictionaryOffset,
+                           long documentsOffset, long idfOffset, long indexOffset){
+        this.file = file;
+        this.documentCount = documentCount;
+        this.termCount = termCount;
+        this.dictionaryOffset = dictionaryOffset;
+        this.documentsOffset = documentsOffset;
+        this.idfOffset = idfOffset;
+        this.indexOffset = indexOffset;
+    }
+
+
+
+
+    /**
+     * Write a snapshot of a corpus, along with the current term dictionary and IDF table. The snapshot is written
+     * beside the file and moved over it once complete, so a mapping of the old snapshot stays readable meanwhile
+     * @param path file written, replaced if it exists
+     * @param documents URL database, null slots such as the pages a crawl dropped are left out
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, URL [] documents) throws IOException {
+        documents = Arrays.stream(documents).filter(url -> url != null).toArray(URL[]::new);
+        String [] words = TermDictionary.toArray();
+        long [] offsets = new long[documents.length];
+
+        // A temp file of its own, so writers of the same snapshot do not clobber each other's
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName() + ".", ".tmp");
+        boolean moved = false;
+
+        try {
+            try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                Output out = new Output(channel, HEADER_SIZE);
+
+                // Dictionary, front coded in sorted order
+                long dictionaryOffset = out.position();
+                Integer [] order = new Integer[words.length];
+                for(int i0 = 0; i0 < order.length; i0++) order[i0] = i0;
+                Arrays.sort(order, (i0, i1) -> words[i0].compareTo(words[i1]));
+                byte [] previous = new byte[0];
+                for(Integer id : order){
+                    byte [] word = words[id].getBytes(StandardCharsets.UTF_8);
+                    int shared = 0, limit = Math.min(previous.length, word.length);
+                    while(shared < limit && previous[shared] == word[shared]) shared++;
+                    out.putVarInt(shared);
+                    out.putVarInt(word.length - shared);
+                    out.put(word, shared, word.length - shared);
+                    out.putVarInt(id);
+                    previous = word;
+                }
+
+                // Documents, term IDs delta coded
+                long documentsOffset = out.position();
+                int [] termIds = new int[0], freqs = new int[0];
+                for(int i1 = 0; i1 < documents.length; i1++){
+                    offsets[i1] = out.position();
+                    byte [] url = documents[i1].getUrl().getBytes(StandardCharsets.UTF_8);
+                    BTree tree = documents[i1].getTree();
+                    if(termIds.length < tree.getTotalKeyCount()) {
+                        termIds = new int[tree.getTotalKeyCount()];
+                        freqs = new int[tree.getTotalKeyCount()];
+                    }
+                    int keyCount = tree.copyKeys(termIds, freqs);
+
+                    out.putVarInt(url.length);
+                    out.put(url, 0, url.length);
+                    out.putVarInt(keyCount);
+                    int previousId = 0;
+                    for(int i2 = 0; i2 < keyCount; i2++){
+                        out.putVarInt(termIds[i2] - previousId);
+                        out.putVarInt(freqs[i2]);
+                        previousId = termIds[i2];
+                    }
+                }
+
+                // IDF table
+                long idfOffset = out.position();
+                int [] appearances = new int[words.length];
+                out.putVarInt(IDF.copyTo(appearances));
+                for(int appearance : appearances) out.putVarInt(appearance);
+
+                // Offset index
+                long indexOffset = out.position();
+                for(long offset : offsets) out.putLong(offset);
+                long length = out.position();
+                int crc = out.finish();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(documents.length).putInt(words.length);
+                header.putLong(dictionaryOffset).putLong(documentsOffset).putLong(idfOffset).putLong(indexOffset);
+                header.putLong(length).putInt(crc);
+                header.clear();
+                while(header.hasRemaining()) channel.write(header, header.position());
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            if(!moved) Files.deleteIfExists(temp);
+        }
+    }
+
+
+
+
+    /**
+     * Map a snapshot and check its header and checksum
+     * @param path snapshot file
+     * @return a reader over the snapshot
+     * @throws IOException if the file cannot be read, or is not a valid snapshot of this version
+     */
+    public static CorpusSnapshot open(Path path) throws IOException {
+        MappedByteBuffer file;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Not a corpus snapshot: " + path);
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if(file.getInt(0) != MAGIC) throw new IOException("Not a corpus snapshot: " + path);
+        if(file.getInt(4) != VERSION) throw new IOException("Unsupported snapshot version " + file.getInt(4));
+        long length = file.getLong(48);
+        if(length != file.capacity()) throw new IOException("Truncated corpus snapshot: " + path);
+
+        CRC32 crc = new CRC32();
+        crc.update(file.slice(HEADER_SIZE, (int)length - HEADER_SIZE));
+        if((int)crc.getValue() != file.getInt(56)) throw new IOException("Corrupt corpus snapshot: " + path);
+
+        return new CorpusSnapshot(file, file.getInt(8), file.getInt(12), file.getLong(16), file.getLong(24),
+                file.getLong(32), file.getLong(40));
+    }
+
+
+
+
+    /**
+     * Read a whole snapshot: the term dictionary and IDF table become the snapshot's, and every web page is returned
+     * @param path snapshot file
+     * @return URL database, in the order it was written
+     * @throws IOException if the file cannot be read, or is not a valid snapshot
+     */
+    public static URL [] load(Path path) throws IOException {
+        CorpusSnapshot snapshot = open(path);
+        snapshot.loadTerms();
+        return snapshot.readDocuments();
+    }
+
+
+
+
+    /**
+     * The term dictionary and IDF table become the snapshot's, must be done before documents are read
+     */
+    public void loadTerms(){
+        ByteBuffer in = file.duplicate().position((int)dictionaryOffset);
+        String [] words = new String[termCount];
+        byte [] word = new byte[64];
+        for(int i0 = 0; i0 < termCount; i0++){
+            int shared = getVarInt(in);
+            int length = shared + getVarInt(in);
+            if(length > word.length) word = Arrays.copyOf(word, Math.max(length, word.length * 2));
+            in.get(word, shared, length - shared);
+            words[getVarInt(in)] = new String(word, 0, length, StandardCharsets.UTF_8);
+        }
+        TermDictionary.load(words);
+
+        in.position((int)idfOffset);
+        int urlCount = getVarInt(in);
+        int [] appearances = new int[termCount];
+        for(int i1 = 0; i1 < termCount; i1++) appearances[i1] = getVarInt(in);
+        IDF.load(urlCount, appearances);
+    }
+
+
+
+
+    /**
+     * Read every web page, in one sequential pass over the documents section
+     * @return URL database, in the order it was written
+     */
+    public URL [] readDocuments(){
+        ByteBuffer in = file.duplicate().position((int)documentsOffset);
+        URL [] documents = new URL[documentCount];
+        for(int i = 0; i < documentCount; i++) documents[i] = readDocument(in);
+        return documents;
+    }
+
+
+
+
+    /**
+     * Read a single web page through the offset index
+     * @param index position of the web page in the snapshot
+     * @return the web page
+     */
+    public URL readDocument(int index){
+        if(index < 0 || index >= documentCount) throw new IndexOutOfBoundsException(index);
+        long offset = file.getLong((int)indexOffset + (index * 8));
+        return readDocument(file.duplicate().position((int)offset));
+    }
+
+
+
+
+    /**
+     * Number of web pages in the snapshot
+     * @return number of web pages
+     */
+    public int getDocumentCount(){ return documentCount; }
+
+
+
+
+    /**
+     * Decode a document block, bulk loading its tree
+     * @param in buffer positioned at the block, left just past it
+     * @return the web page
+     */
+    private static URL readDocument(ByteBuffer in){
+        byte [] url = new byte[getVarInt(in)];
+        in.get(url);
+        int keyCount = getVarInt(in);
+        int [] termIds = new int[keyCount];
+        int [] freqs = new int[keyCount];
+        int termId = 0;
+        for(int i = 0; i < keyCount; i++){
+            termId += getVarInt(in);
+            termIds[i] = termId;
+            freqs[i] = getVarInt(in);
+        }
+
+        String address = new String(url, StandardCharsets.UTF_8);
+        return new URL(address, BTree.bulkLoad(address, termIds, freqs, keyCount));
+    }
+
+
+
+
+    /**
+     * Read a varint
+     * @param in buffer read from
+     * @return the value read
+     */
+    private static int getVarInt(ByteBuffer in){
+        int value = 0;
+        for(int shift = 0; ; shift += 7){
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0) return value;
+        }
+    }
+
+
+
+
+    /**
+     * Buffered channel writer, keeping a CRC32 of everything written through it
+     */
+    private static class Output {
+        private final FileChannel channel;      // File written
+        private final ByteBuffer buffer;        // Bytes not yet written
+        private final CRC32 crc = new CRC32();  // Checksum of the bytes written
+        private long flushed;                   // File position of the buffer's first byte
+
+
+
+
+        /**
+         * Construct a writer
+         * @param channel file written
+         * @param start file position of the first byte written
+         */
+        Output(FileChannel channel, long start){
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            this.flushed = start;
+        }
+
+
+
+
+        /**
+         * File position of the next byte written
+         * @return file position
+         */
+        long position(){ return flushed + buffer.position(); }
+
+
+
+
+        /**
+         * Write a non-negative int in 7-bit groups, low group first
+         * @param value non-negative value
+         */
+        void putVarInt(int value) throws IOException {
+            if(buffer.remaining() < 5) flush();
+            while((value & ~0x7F) != 0){
+                buffer.put((byte)((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte)value);
+        }
+
+
+
+
+        /**
+         * Write a long
+         * @param value value written
+         */
+        void putLong(long value) throws IOException {
+            if(buffer.remaining() < 8) flush();
+            buffer.putLong(value);
+        }
+
+
+
+
+        /**
+         * Write a range of bytes
+         * @param bytes array written from
+         * @param offset first byte written
+         * @param length number of bytes written
+         */
+        void put(byte [] bytes, int offset, int length) throws IOException {
+            while(length > 0){
+                if(!buffer.hasRemaining()) flush();
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+
+
+
+        /**
+         * Write out the buffer
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while(buffer.hasRemaining()) flushed += channel.write(buffer, flushed);
+            buffer.clear();
+        }
+
+
+
+
+        /**
+         * Write out the buffer
+         * @return CRC32 of everything written
+         */
+        int finish() throws IOException {
+            flush();
+            return (int)crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/**
+ * Concurrent crawl pipeline. Each web page passes through four stages, fetch, parse, tokenize and B-Tree build, and
+ * every stage hands its output to the next through a bounded queue so a slow stage throttles the stages before it.
+ * Fetches run on virtual threads, and the number of simultaneous connections to any one host is capped. A page that
+ * cannot be fetched, or fails in any later stage, is dropped and leaves a null slot in the crawl result.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import org.jsoup.Jsoup;
+import org.jsoup.select.Elements;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class Crawler {
+    private static final int DEFAULT_HOST_LIMIT = 8;            // Simultaneous connections allowed per host
+    private static final int DEFAULT_QUEUE_CAPACITY = 64;       // Pages allowed to wait between two stages
+    private static final Page END = new Page(-1, null);         // Signals a stage worker to stop
+
+    private final Fetcher fetcher;                              // Retrieves the raw HTML of a web page
+    private final int hostLimit;                                // Simultaneous connections allowed per host
+    private final int queueCapacity;                            // Pages allowed to wait between two stages
+    private final int workerCount;                              // Threads used by each CPU bound stage
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+
+
+
+    /**
+     * Retrieves the raw HTML of a web page, implementations other than the default let the pipeline run against a
+     * local stand-in for Wikipedia
+     */
+    public interface Fetcher {
+        String fetch(String url) throws IOException;
+    }
+
+
+
+
+    /**
+     * Construct a crawler that fetches web pages with Jsoup
+     */
+    public Crawler(){
+        this(url -> Jsoup.connect(url).execute().body(), DEFAULT_HOST_LIMIT, DEFAULT_QUEUE_CAPACITY);
+    }
+
+
+
+
+    /**
+     * Construct a crawler
+     * @param fetcher Retrieves the raw HTML of a web page
+     * @param hostLimit Simultaneous connections allowed per host, must be positive
+     * @param queueCapacity Pages allowed to wait between two stages, must be positive
+     */
+    public Crawler(Fetcher fetcher, int hostLimit, int queueCapacity){
+        this.fetcher = fetcher;
+        this.hostLimit = hostLimit;
+        this.queueCapacity = queueCapacity;
+        this.workerCount = Runtime.getRuntime().availableProcessors();
+    }
+
+
+
+
+    /**
+     * Crawl every web page and construct a URL object for each
+     * @param urls URL addresses to crawl
+     * @return URL objects, in the same order as the addresses, null for each page that was dropped
+     * @throws InterruptedException if interrupted while waiting on the pipeline
+     */
+    public URL[] crawl(String [] urls) throws InterruptedException {
+        URL [] results = new URL[urls.length];
+        BlockingQueue<Page> fetched = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Page> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Page> tokenized = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService fetchers = VirtualThreads.newExecutor();
+        ExecutorService parsers = Executors.newFixedThreadPool(workerCount);
+        ExecutorService tokenizers = Executors.newFixedThreadPool(workerCount);
+        ExecutorService builders = Executors.newFixedThreadPool(workerCount);
+        Semaphore inFlight = new Semaphore(queueCapacity);
+
+        try {
+            // Downstream stages wait on their queues until the fetch stage starts producing
+            for(int i0 = 0; i0 < workerCount; i0++){
+                parsers.execute(() -> runStage(fetched, parsed, this::parse));
+                tokenizers.execute(() -> runStage(parsed, tokenized, this::tokenize));
+                builders.execute(() -> runStage(tokenized, null, page -> {
+                    results[page.index] = new URL(page.url, page.wordFreq);
+                    return page;
+                }));
+            }
+
+            // Fetch stage, at most queueCapacity pages are fetched or waiting to enter the parse stage
+            for(int i1 = 0; i1 < urls.length; i1++){
+                Page page = new Page(i1, urls[i1]);
+                inFlight.acquire();
+                fetchers.execute(() -> {
+                    try {
+                        if(fetch(page)) fetched.put(page);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+
+            // Drain each stage in turn, then stop its workers
+            fetchers.shutdown();
+            fetchers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            finishStage(parsers, fetched, workerCount);
+            finishStage(tokenizers, parsed, workerCount);
+            finishStage(builders, tokenized, workerCount);
+        } finally {
+            fetchers.shutdownNow();
+            parsers.shutdownNow();
+            tokenizers.shutdownNow();
+            builders.shutdownNow();
+        }
+        return results;
+    }
+
+
+
+
+    /**
+     * Fetch stage, retrieves the raw HTML of the page while holding one of its host's permits. On failure the stack
+     * trace is printed and the page is dropped
+     * @param page Page to fetch
+     * @return true if the page was fetched
+     * @throws InterruptedException if interrupted while waiting on a host permit
+     */
+    private boolean fetch(Page page) throws InterruptedException {
+        Semaphore permits = hostPermits.computeIfAbsent(host(page.url), h -> new Semaphore(hostLimit));
+        permits.acquire();
+        try {
+            page.html = fetcher.fetch(page.url);
+            return page.html != null;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            permits.release();
+        }
+    }
+
+
+
+
+    /**
+     * Parse stage, reduces the raw HTML to its paragraph elements
+     * @param page Fetched page
+     * @return the same page
+     */
+    private Page parse(Page page){
+        page.paragraphs = Jsoup.parse(page.html, page.url).getElementsByTag("p");
+        page.html = null;
+        return page;
+    }
+
+
+
+
+    /**
+     * Tokenize stage, counts the words of the paragraph elements
+     * @param page Parsed page
+     * @return the same page
+     */
+    private Page tokenize(Page page){
+        page.wordFreq = URL.countWords(page.paragraphs);
+        page.paragraphs = null;
+        return page;
+    }
+
+
+
+
+    /**
+     * Worker loop, takes pages from one queue, processes them, and puts them on the next queue until END is taken. A
+     * page whose processing fails is dropped, leaving its result null
+     * @param in Queue the stage reads from
+     * @param out Queue the stage writes to, null for the last stage
+     * @param work Processing performed on each page
+     */
+    private static void runStage(BlockingQueue<Page> in, BlockingQueue<Page> out, Stage work){
+        try {
+            for(Page page = in.take(); page != END; page = in.take()){
+                try {
+                    page = work.process(page);
+                } catch (RuntimeException ex) {
+                    // A malformed page is dropped, the rest of the crawl continues
+                    ex.printStackTrace();
+                    continue;
+                }
+                if(out != null) out.put(page);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+
+
+    /**
+     * Signals each worker of a stage to stop once its queue is drained, and waits for them to finish
+     * @param workers Executor running the stage's workers
+     * @param in Queue the stage reads from
+     * @param count Number of workers in the stage
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void finishStage(ExecutorService workers, BlockingQueue<Page> in, int count)
+            throws InterruptedException {
+        for(int i = 0; i < count; i++) in.put(END);
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+
+
+
+    /**
+     * Determine the host of a URL address, used to group connections
+     * @param url URL address
+     * @return the host name, or the address itself if it cannot be parsed
+     */
+    private static String host(String url){
+        try {
+            String host = URI.create(url).getHost();
+            if(host != null) return host;
+        } catch (IllegalArgumentException ex) { }
+        return url;
+    }
+
+
+
+
+    /**
+     * Work performed by a single stage
+     */
+    private interface Stage {
+        Page process(Page page);
+    }
+
+
+
+
+    /**
+     * A web page moving through the pipeline, each stage releases the previous stage's output once consumed
+     */
+    private static class Page {
+        final int index;                    // Position of the page in the crawl order
+        final String url;                   // The web page's URL
+        String html;                        // Raw HTML, set by the fetch stage
+        Elements paragraphs;                // Paragraph elements, set by the parse stage
+        TermFrequencyMap wordFreq;          // Filtered word-frequency pairs, set by the tokenize stage
+
+        Page(int index, String url){
+            this.index = index;
+            this.url = url;
+        }
+    }
+}
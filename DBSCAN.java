@@ -7,8 +7,7 @@
  * @citation DBSCAN data clustering algoritm developed by Martin Ester, Hans-Peter Kriegel, Jörg Sander and Xiaowei Xu
  */
 
-import java.util.ArrayList;
-import java.util.TreeSet;
+import java.util.BitSet;
 
 public class DBSCAN {
     private static final int NOISE = 0; // Value used to represent noise
@@ -23,75 +22,67 @@ public class DBSCAN {
      * @param minPts URLS within radius necessary to join cluster
      */
     public static void dbScan(URL [] urlArray, double eps, int minPts){
-        int clusterCounter = 0;
-        TreeSet<URL> tempSet = new TreeSet<URL>();
-        ArrayList<URL> tempList;
-        ArrayList<URL> neighbors;
-
-        // Goes through and label's each element
-        for(URL url: urlArray){
-            if(url.getLabel() != null) continue;
-            neighbors = rangeQuery(urlArray, url, eps);
-            if(neighbors.size() < minPts){
-                url.setLabel(NOISE);
-                continue;
-            }
-            clusterCounter++;
-            url.setLabel(clusterCounter);
-            tempSet.addAll(neighbors);
-            tempList = new ArrayList<URL>(tempSet);
-            for(int i0 = 0; i0 < tempList.size(); i0++){
-                if(tempList.get(i0).getLabel() != null && tempList.get(i0).getLabel() == NOISE) {
-                    tempList.get(i0).setLabel(clusterCounter);
-                }
-                if(tempList.get(i0).getLabel() != null) continue;
-                tempList.get(i0).setLabel(clusterCounter);
-                neighbors = rangeQuery(urlArray,tempList.get(i0),eps);
-                if(neighbors.size() >= minPts){
-                    neighbors = filterList(tempList,neighbors);
-                    tempList.addAll(neighbors);
-                }
-            }
-        }
+        dbScan(NeighborhoodGraph.build(urlArray, eps), minPts);
     }
 
 
 
 
     /**
-     * Generate list of URL's in eps range
-     * @param urlArray URL database
-     * @param url URL compared to URL database
-     * @param eps Value deciding if a similarity metric is in range of url
-     * @return Return list of URL's in eps range
+     * Generates the cluster using DBSCAN over a precomputed neighborhood graph, so that several minPts values can be
+     * tried for the same eps without scoring the web pages again
+     * @param graph eps-neighborhood graph of the URL database, whose web pages are labeled
+     * @param minPts URLS within radius necessary to join cluster
      */
-    public static ArrayList<URL> rangeQuery(URL [] urlArray, URL url, double eps){
-        ArrayList<URL> neighbors = new ArrayList<URL>();
+    public static void dbScan(NeighborhoodGraph graph, int minPts){
+        URL [] urlArray = graph.getDocuments();
+        int clusterCounter = 0;
+        BitSet queued = new BitSet(urlArray.length);    // Points ever queued, each is labeled once dequeued
+        int [] queue = new int[urlArray.length];        // Points of the cluster being expanded
 
-        // URL's in the range of eps, are put in the neighbors
-        for(URL tempURL: urlArray){
-            if(URL.generateURLSimilarityVal(tempURL,url) >= eps)
-                neighbors.add(tempURL);
+        // Goes through and label's each element
+        for(int i0 = 0; i0 < urlArray.length; i0++){
+            if(urlArray[i0].getLabel() != null) continue;
+            if(graph.degree(i0) < minPts){
+                urlArray[i0].setLabel(NOISE);
+                continue;
+            }
+            clusterCounter++;
+            urlArray[i0].setLabel(clusterCounter);
+            queued.set(i0);
+
+            // Expand the cluster, a point is queued at most once over the whole run
+            int head = 0, tail = enqueue(graph, i0, queued, queue, 0);
+            while(head < tail){
+                int point = queue[head++];
+                URL url = urlArray[point];
+                if(url.getLabel() != null && url.getLabel() != NOISE) continue;
+                boolean border = url.getLabel() != null;
+                url.setLabel(clusterCounter);
+                if(!border && graph.degree(point) >= minPts) tail = enqueue(graph, point, queued, queue, tail);
+            }
         }
-        return neighbors;
     }
 
 
 
 
     /**
-     * Removes elements in list2, that are in list1
-     * @param list1  list used to know which elements to filter
-     * @param list2 list that is filtered
-     * @return a filtered list
+     * Queue the neighbors of a point that were never queued
+     * @param graph eps-neighborhood graph
+     * @param point point whose neighbors are queued
+     * @param queued points ever queued
+     * @param queue queue of the cluster being expanded
+     * @param tail position after the last queued point
+     * @return the new tail
      */
-    public static ArrayList<URL> filterList(ArrayList<URL> list1, ArrayList<URL> list2){
-        for(int i1 = 0; i1 < list1.size(); i1++){
-            for(int i2 = 0; i2 < list2.size(); i2++){
-                if(list1.get(i1).getUrl().equals(list2.get(i2).getUrl()))
-                    list2.remove(i2);
-            }
+    private static int enqueue(NeighborhoodGraph graph, int point, BitSet queued, int [] queue, int tail){
+        for(int i = graph.start(point); i < graph.end(point); i++){
+            int neighbor = graph.neighborAt(i);
+            if(queued.get(neighbor)) continue;
+            queued.set(neighbor);
+            queue[tail++] = neighbor;
         }
-        return list2;
+        return tail;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+/**
+ * Sparse TF-IDF vector of a web page. Term IDs are held in ascending order next to weights that already include the
+ * square root of the term's IDF, so the similarity of two pages is a merge-join dot product over primitive arrays.
+ * The vector's L2 norm is computed once with it, so the cosine similarity of two pages costs no more than the dot
+ * product and is not swayed by page length.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.util.Arrays;
+
+public class DocumentVector {
+    private final int [] terms;         // Term IDs, ascending
+    private final float [] weights;     // tf * sqrt(idf) of each term
+    private final long idfVersion;      // IDF version the weights were computed against
+    private final double norm;          // L2 norm of the weights
+
+
+
+
+    /**
+     * Construct a vector
+     * @param terms Term IDs, ascending
+     * @param weights Weight of each term
+     * @param idfVersion IDF version the weights were computed against
+     */
+    public DocumentVector(int [] terms, float [] weights, long idfVersion){
+        this.terms = terms;
+        this.weights = weights;
+        this.idfVersion = idfVersion;
+
+        double sum = 0;
+        for(float weight : weights) sum += (double)weight * weight;
+        this.norm = Math.sqrt(sum);
+    }
+
+
+
+
+    /**
+     * Convert a B-Tree into a vector, weighting each word by its term frequency and the current IDF table
+     * @param tree B-Tree of a web page
+     * @return the page's vector
+     */
+    public static DocumentVector of(BTree tree){
+        IDF.WeightTable idf = IDF.weightTable();
+        double totalWordCount = tree.getTotalWordCount();
+        int [] keyTerms = new int[tree.getTotalKeyCount()];
+        int [] keyFreqs = new int[tree.getTotalKeyCount()];
+        int keyCount = tree.copyKeys(keyTerms, keyFreqs);      // Ascending term ID order
+
+        int [] terms = new int[keyCount];
+        float [] weights = new float[keyCount];
+        int size = 0;
+        for(int i = 0; i < keyCount; i++){
+            int term = keyTerms[i];
+            int freq = keyFreqs[i];
+
+            // Trees saved while words were truncated to 13 characters may repeat an ID, combine the frequencies
+            while(i + 1 < keyCount && keyTerms[i + 1] == term){
+                freq += keyFreqs[++i];
+            }
+            terms[size] = term;
+            weights[size++] = (float)(freq / totalWordCount * idf.weight(term));
+        }
+        return new DocumentVector(Arrays.copyOf(terms, size), Arrays.copyOf(weights, size), idf.getVersion());
+    }
+
+
+
+
+    /**
+     * Dot product of two vectors, merging their ascending term IDs
+     * @param other vector compared against
+     * @return summation of tf * tf * idf over the shared terms
+     */
+    public double dot(DocumentVector other){
+        int [] terms1 = terms, terms2 = other.terms;
+        float [] weights1 = weights, weights2 = other.weights;
+        int i1 = 0, i2 = 0;
+        double returnVal = 0;
+
+        while(i1 < terms1.length && i2 < terms2.length){
+            int term1 = terms1[i1], term2 = terms2[i2];
+            if(term1 == term2) returnVal += (double)weights1[i1++] * weights2[i2++];
+            else if(term1 < term2) i1++;
+            else i2++;
+        }
+        return returnVal;
+    }
+
+
+
+
+    /**
+     * Cosine similarity of two vectors, the dot product divided by both norms
+     * @param other vector compared against
+     * @return cosine of the angle between the vectors, 0 if either vector is empty
+     */
+    public double cosine(DocumentVector other){
+        double norms = norm * other.norm;
+        return (norms == 0) ? 0 : dot(other) / norms;
+    }
+
+
+
+
+    /**
+     * Term IDs of the vector, ascending
+     * @return term IDs of the vector, must not be modified
+     */
+    public int [] getTerms(){ return terms; }
+
+
+
+
+    /**
+     * Weights of the vector, parallel to getTerms
+     * @return weights of the vector, must not be modified
+     */
+    public float [] getWeights(){ return weights; }
+
+
+
+
+    /**
+     * IDF version the weights were computed against
+     * @return IDF version the weights were computed against
+     */
+    public long getIdfVersion(){ return idfVersion; }
+
+
+
+
+    /**
+     * L2 norm of the vector
+     * @return square root of the summation of the squared weights
+     */
+    public double getNorm(){ return norm; }
+}
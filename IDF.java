@@ -1,5 +1,9 @@
 /**
- * Inverse Document Frequency, develops word weights depending on the number of unique pages the word appeared in
+ * Inverse Document Frequency, develops word weights depending on the number of unique pages the word appeared in.
+ * Document frequencies are atomic int counters indexed by term ID, and the number of URLs is held apart from the
+ * words, so pages tokenized in parallel can update the table without losing counts. Pages are added, updated and
+ * removed as a whole: updates share a lock that copies of the table take exclusively, so a copy never holds half a
+ * page, and every change bumps the version that cached weights are checked against.
  *
  * @author Tonia Sanzo
  * @version 1.0
@@ -7,44 +11,305 @@
  */
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class IDF implements Serializable {
-    private static final String URL_COUNT_KEY = "URL_COUNT";
-    static Map<String, Integer> classMap = new HashMap<>();
+    private static final int CHUNK_BITS = 12;           // Counters per chunk, as a power of two
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAX_CHUNKS = 1 << 16;
+
+    static volatile AtomicReferenceArray<AtomicIntegerArray> classTable =   // Term ID-document frequency, chunked
+            new AtomicReferenceArray<>(MAX_CHUNKS);
+    static volatile LongAdder urlCount = new LongAdder();                   // Number of URLs in the corpus
+    static final AtomicLong version = new AtomicLong();                     // Changes whenever the table does
+    private static final ReentrantReadWriteLock lock =                      // Shared by updates, exclusive to copies
+            new ReentrantReadWriteLock();
+    private static volatile WeightTable weightTable =                       // Term weights of the last version used
+            new WeightTable(-1, new float[0]);
 
 
 
 
     /**
-     * The class HashMap becomes a copy of the parameter
+     * The term dictionary and class table become copies of the last saved ones
      */
     public static void loadIDF() {
-        classMap = new HashMap<>(SaveLoad.loadIDF());
+        TermDictionary.loadDictionary();
+        SaveLoad.loadIDF();
+    }
+
+
+
+
+    /**
+     * The class table becomes a copy of the parameters, swapped in while no update or copy is in progress
+     * @param tempURLCount number of URLs in the corpus
+     * @param appearances document frequency of each term, indexed by term ID
+     */
+    public static void load(int tempURLCount, int [] appearances) {
+        AtomicReferenceArray<AtomicIntegerArray> tempTable = new AtomicReferenceArray<>(MAX_CHUNKS);
+        LongAdder tempCount = new LongAdder();
+
+        for(int i = 0; i < appearances.length; i++){
+            if(appearances[i] != 0) chunk(tempTable, i).set(i & (CHUNK_SIZE - 1), appearances[i]);
+        }
+        tempCount.add(tempURLCount);
+
+        lock.writeLock().lock();
+        try {
+            classTable = tempTable;
+            urlCount = tempCount;
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+
+
+    /**
+     * Increments the IDF(Inverse Document Frequency) of the IDF class table. The version is left alone, a document's
+     * words are followed by incrementURLCount, which bumps it once for the whole document
+     * @param termId ID of the word that needs to increment
+     */
+    public static void incrementIDF(int termId){
+        lock.readLock().lock();
+        try {
+            chunk(classTable, termId).incrementAndGet(termId & (CHUNK_SIZE - 1));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+
+
+    /**
+     * Increments the number of URL objects, completing a document counted word by word with incrementIDF
+     */
+    public static void incrementURLCount(){
+        lock.readLock().lock();
+        try {
+            urlCount.increment();
+            version.incrementAndGet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+
+
+    /**
+     * Empties the class table, before the corpus is rebuilt from scratch
+     */
+    public static void clear() {
+        load(0, new int[0]);
+    }
+
+
+
+
+    /**
+     * Adds a document to the IDF class table, counting the URL and incrementing every one of its words
+     * @param termIds IDs of the distinct words that appeared in the document
+     */
+    public static void addDocument(int [] termIds){
+        lock.readLock().lock();
+        try {
+            AtomicReferenceArray<AtomicIntegerArray> table = classTable;
+            for(int termId : termIds) {
+                chunk(table, termId).incrementAndGet(termId & (CHUNK_SIZE - 1));
+            }
+            urlCount.increment();
+            version.incrementAndGet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+
+
+    /**
+     * Removes a document from the IDF class table, uncounting the URL and decrementing every one of its words
+     * @param termIds IDs of the distinct words the document was added with
+     */
+    public static void removeDocument(int [] termIds){
+        lock.readLock().lock();
+        try {
+            AtomicReferenceArray<AtomicIntegerArray> table = classTable;
+            for(int termId : termIds) decrement(table, termId);
+            urlCount.decrement();
+            version.incrementAndGet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+
+
+    /**
+     * Replaces a document's words in the IDF class table, such as when its web page is crawled again. Only words
+     * that were added or dropped change, and the number of URLs is unchanged
+     * @param oldTermIds IDs of the distinct words the document was added with, ascending
+     * @param newTermIds IDs of the distinct words the document has now, ascending
+     */
+    public static void updateDocument(int [] oldTermIds, int [] newTermIds){
+        lock.readLock().lock();
+        try {
+            AtomicReferenceArray<AtomicIntegerArray> table = classTable;
+            int i0 = 0, i1 = 0;
+
+            // Merge the two ascending lists, words in both are left alone
+            while(i0 < oldTermIds.length || i1 < newTermIds.length){
+                if(i1 == newTermIds.length || (i0 < oldTermIds.length && oldTermIds[i0] < newTermIds[i1])) {
+                    decrement(table, oldTermIds[i0++]);
+                } else if(i0 == oldTermIds.length || newTermIds[i1] < oldTermIds[i0]) {
+                    chunk(table, newTermIds[i1]).incrementAndGet(newTermIds[i1++] & (CHUNK_SIZE - 1));
+                } else {
+                    i0++;
+                    i1++;
+                }
+            }
+            version.incrementAndGet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+
+
+    /**
+     * Get a copy of the current class table
+     * @param size number of term IDs to copy, normally TermDictionary.size()
+     * @return document frequency of each term, indexed by term ID
+     */
+    public static int [] toArray(int size){
+        int [] appearances = new int[size];
+        copyTo(appearances);
+        return appearances;
+    }
+
+
+
+
+    /**
+     * Copy the class table and URL count, no document is half counted in the copy
+     * @param appearances receives the document frequency of each term, indexed by term ID
+     * @return number of URLs counted in the copy
+     */
+    public static int copyTo(int [] appearances){
+        lock.writeLock().lock();
+        try {
+            for(int i = 0; i < appearances.length; i++) appearances[i] = wordAppearances(i);
+            return urlCount.intValue();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
 
 
 
     /**
-     * Increments the IDF(Inverse Document Frequency) of the IDF class HashMap
-     * @param word The word that needs to increment
+     * Get the IDF weight of every term, materialized once per version of the class table so building vectors is a
+     * lookup instead of a logarithm per word
+     * @return weight table of the current version
      */
-    public static void incrementIDF(String word){
-        Integer freq = classMap.get(word);
-        classMap.put(word, (freq == null)?1: freq + 1);
+    public static WeightTable weightTable(){
+        WeightTable table = weightTable;
+        if(table.version == version.get()) return table;
+
+        // Copy the counts with the version they belong to, no update can land in between
+        int [] appearances = new int[TermDictionary.size()];
+        long tempVersion;
+        double count;
+        lock.writeLock().lock();
+        try {
+            tempVersion = version.get();
+            count = urlCount.doubleValue();
+            for(int i = 0; i < appearances.length; i++) appearances[i] = wordAppearances(i);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        float [] weights = new float[appearances.length];
+        for(int i = 0; i < appearances.length; i++){
+            // idf is clamped at 0, the square root of a negative log would be NaN
+            if(appearances[i] != 0) weights[i] = (float)Math.sqrt(Math.max(0, Math.log(count / appearances[i])));
+        }
+        table = new WeightTable(tempVersion, weights);
+        weightTable = table;
+        return table;
     }
 
 
 
 
     /**
-     * Get the current class's HashMap
-     * @return Class's HashMap
+     * Square root of each term's IDF, for one version of the class table. The product of two page weights
+     * tf * sqrt(idf) is then tf * tf * idf
      */
-    public static Map<String, Integer> getMap(){
-        return classMap;
+    public static class WeightTable {
+        private final long version;         // Version of the class table the weights were computed from
+        private final float [] weights;     // sqrt(idf) of each term, indexed by term ID
+
+
+
+
+        /**
+         * Construct a weight table
+         * @param version version of the class table the weights were computed from
+         * @param weights sqrt(idf) of each term, indexed by term ID
+         */
+        WeightTable(long version, float [] weights){
+            this.version = version;
+            this.weights = weights;
+        }
+
+
+
+
+        /**
+         * Weight of a term
+         * @param termId ID of the word
+         * @return sqrt(idf) of the term, 0 if the term never appeared
+         */
+        public float weight(int termId){
+            return (termId >= 0 && termId < weights.length) ? weights[termId] : 0;
+        }
+
+
+
+
+        /**
+         * Version of the class table the weights were computed from
+         * @return IDF version of the weights
+         */
+        public long getVersion(){ return version; }
+    }
+
+
+
+
+    /**
+     * Returns the number of times this word appeared throughout the corpus of web pages
+     * @param termId ID of the word
+     * @return The number of different times the word appeared in the corpus of web pages, 0 if the word never
+     *         appeared.
+     */
+    public static int wordAppearances(int termId) {
+        if(termId < 0) return 0;
+        AtomicIntegerArray chunk = classTable.get(termId >>> CHUNK_BITS);
+        return (chunk == null) ? 0 : chunk.get(termId & (CHUNK_SIZE - 1));
     }
 
 
@@ -57,7 +322,8 @@ public class IDF implements Serializable {
      *         appeared.
      */
     public static Integer wordAppearances(String word) {
-        return classMap.get(word);
+        int appearances = wordAppearances(TermDictionary.lookup(word));
+        return (appearances == 0) ? null : appearances;
     }
 
 
@@ -67,5 +333,45 @@ public class IDF implements Serializable {
      * Get the total number of URL objects
      * @return Number of URL objects so far
      */
-    public static Integer getURLCount() { return classMap.get(URL_COUNT_KEY); }
-}
\ No newline at end of file
+    public static Integer getURLCount() { return urlCount.intValue(); }
+
+
+
+
+    /**
+     * Get the version of the class table, any weight computed against an older version is out of date
+     * @return a number that changes whenever the class table does
+     */
+    public static long getVersion() { return version.get(); }
+
+
+
+
+    /**
+     * Decrement a term's document frequency, never below 0
+     * @param table chunk table
+     * @param termId ID of the word that needs to decrement
+     */
+    private static void decrement(AtomicReferenceArray<AtomicIntegerArray> table, int termId){
+        chunk(table, termId).updateAndGet(termId & (CHUNK_SIZE - 1), appearances -> Math.max(0, appearances - 1));
+    }
+
+
+
+
+    /**
+     * Retrieve the chunk holding a term ID's counter, creating it if needed
+     * @param table chunk table
+     * @param termId ID whose chunk is returned
+     * @return the chunk holding the term's counter
+     */
+    private static AtomicIntegerArray chunk(AtomicReferenceArray<AtomicIntegerArray> table, int termId){
+        int index = termId >>> CHUNK_BITS;
+        AtomicIntegerArray chunk = table.get(index);
+        if(chunk == null){
+            table.compareAndSet(index, null, new AtomicIntegerArray(CHUNK_SIZE));
+            chunk = table.get(index);
+        }
+        return chunk;
+    }
+}
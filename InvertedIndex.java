@@ -0,0 +1,223 @@
+/**
+ * Inverted index over the TF-IDF vectors of a corpus. Each term maps to a postings list of the documents containing
+ * it and the term's weight in each, so a query only scores the documents that share a term with it. Query terms are
+ * processed in order of their largest possible contribution, and once no unseen document could overtake the best
+ * candidate the remaining terms only update documents already seen (MaxScore pruning). A cosine index divides every
+ * posting by its document's norm and the query by its own, so scores are cosine similarities at no extra cost.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.util.Arrays;
+
+public class InvertedIndex {
+    private final URL [] documents;         // Indexed documents, postings refer to their position
+    private final int [] termOffsets;       // Postings of term t are [termOffsets[t], termOffsets[t + 1])
+    private final int [] postingDocs;       // Document index of each posting, ascending within a term
+    private final float [] postingWeights;  // Term weight of each posting
+    private final float [] maxWeights;      // Largest posting weight of each term
+    private final long idfVersion;          // IDF version the weights were computed against
+    private final boolean cosine;           // Whether weights are divided by the vectors' norms
+
+
+
+
+    /**
+     * Construct an inverted index scoring by dot product
+     * @param documents URL database
+     */
+    public InvertedIndex(URL [] documents){
+        this(documents, false);
+    }
+
+
+
+
+    /**
+     * Construct an inverted index
+     * @param documents URL database
+     * @param cosine whether to score by cosine similarity instead of dot product
+     */
+    public InvertedIndex(URL [] documents, boolean cosine){
+        this.documents = documents;
+        this.cosine = cosine;
+        this.idfVersion = IDF.getVersion();
+        DocumentVector [] vectors = new DocumentVector[documents.length];
+
+        // Count the postings of each term
+        int termCount = 0;
+        for(int i0 = 0; i0 < documents.length; i0++){
+            vectors[i0] = documents[i0].getVector();
+            int [] terms = vectors[i0].getTerms();
+            if(terms.length > 0) termCount = Math.max(termCount, terms[terms.length - 1] + 1);
+        }
+        termOffsets = new int[termCount + 1];
+        for(DocumentVector vector : vectors){
+            for(int term : vector.getTerms()) termOffsets[term + 1]++;
+        }
+        for(int i1 = 0; i1 < termCount; i1++) termOffsets[i1 + 1] += termOffsets[i1];
+
+        // Fill the postings in document order, so each list is ascending
+        postingDocs = new int[termOffsets[termCount]];
+        postingWeights = new float[termOffsets[termCount]];
+        maxWeights = new float[termCount];
+        int [] next = Arrays.copyOf(termOffsets, termCount);
+        for(int i2 = 0; i2 < vectors.length; i2++){
+            int [] terms = vectors[i2].getTerms();
+            float [] weights = vectors[i2].getWeights();
+            double scale = scale(vectors[i2]);
+            for(int i3 = 0; i3 < terms.length; i3++){
+                int slot = next[terms[i3]]++;
+                float weight = (float)(weights[i3] * scale);
+                postingDocs[slot] = i2;
+                postingWeights[slot] = weight;
+                maxWeights[terms[i3]] = Math.max(maxWeights[terms[i3]], weight);
+            }
+        }
+    }
+
+
+
+
+    /**
+     * Determines the most similar document to a query
+     * @param query TF-IDF vector of the query web page
+     * @return index of the most similar document, or -1 if no document has a positive similarity value
+     */
+    public int mostSimilar(DocumentVector query){
+        TopK best = query(query, 1);
+        return (best.size() == 0) ? -1 : best.docAt(0);
+    }
+
+
+
+
+    /**
+     * Determines the k most similar documents to a query. Only documents with a positive similarity value are kept,
+     * as in MinHashIndex.topK, so sharing only words every page holds does not make a document similar
+     * @param query TF-IDF vector of the query web page
+     * @param k number of documents to keep, must be positive
+     * @return heap of the k best document indices and their similarity values
+     */
+    public TopK query(DocumentVector query, int k){
+        int [] queryTerms = query.getTerms();
+        float [] queryWeights = query.getWeights();
+        double queryScale = scale(query);
+
+        // Keep the query terms that are indexed, ordered by largest possible contribution
+        long [] order = new long[queryTerms.length];
+        double [] bounds = new double[queryTerms.length];
+        int termCount = 0;
+        double remaining = 0;
+        for(int i0 = 0; i0 < queryTerms.length; i0++){
+            int term = queryTerms[i0];
+            if(term >= maxWeights.length || termOffsets[term] == termOffsets[term + 1]) continue;
+            bounds[i0] = queryWeights[i0] * queryScale * maxWeights[term];
+            remaining += bounds[i0];
+            // Bits of a non-negative float rise with its value, negated they sort largest bound first
+            order[termCount++] = ((long)-Float.floatToIntBits((float)bounds[i0]) << 32) | i0;
+        }
+        Arrays.sort(order, 0, termCount);
+
+        double [] scores = new double[documents.length];
+        boolean [] seen = new boolean[documents.length];
+        int [] candidates = new int[documents.length];
+        int candidateCount = 0;
+        double maxScore = 0;
+        boolean pruning = false;
+
+        for(int i1 = 0; i1 < termCount; i1++){
+            int queryIndex = (int)order[i1];
+            int term = queryTerms[queryIndex];
+            double queryWeight = queryWeights[queryIndex] * queryScale;
+            int start = termOffsets[term], end = termOffsets[term + 1];
+
+            // Unseen documents score at most the remaining bound, once k candidates beat it they cannot get in
+            if(!pruning && candidateCount >= k && maxScore > remaining)
+                pruning = kthScore(scores, candidates, candidateCount, k) > remaining;
+            remaining -= bounds[queryIndex];
+
+            if(!pruning) {
+                // Every document of the postings may still reach the top k
+                for(int i2 = start; i2 < end; i2++){
+                    int doc = postingDocs[i2];
+                    if(!seen[doc]) {
+                        seen[doc] = true;
+                        candidates[candidateCount++] = doc;
+                    }
+                    scores[doc] += queryWeight * postingWeights[i2];
+                    maxScore = Math.max(maxScore, scores[doc]);
+                }
+            } else {
+                // Only finish scoring the candidates
+                for(int i3 = 0; i3 < candidateCount; i3++){
+                    int doc = candidates[i3];
+                    int slot = Arrays.binarySearch(postingDocs, start, end, doc);
+                    if(slot >= 0) scores[doc] += queryWeight * postingWeights[slot];
+                }
+            }
+        }
+
+        TopK topK = new TopK(k);
+        for(int i4 = 0; i4 < candidateCount; i4++){
+            if(scores[candidates[i4]] > 0) topK.offer(candidates[i4], scores[candidates[i4]]);
+        }
+        return topK;
+    }
+
+
+
+
+    /**
+     * Factor a vector's weights are multiplied by
+     * @param vector vector scaled
+     * @return 1 / norm for a cosine index, otherwise 1
+     */
+    private double scale(DocumentVector vector){
+        if(!cosine) return 1;
+        return (vector.getNorm() == 0) ? 0 : 1 / vector.getNorm();
+    }
+
+
+
+
+    /**
+     * Determine the k-th largest partial score among the candidates
+     * @return the k-th largest score, a lower bound on the final score of the k-th best document
+     */
+    private static double kthScore(double [] scores, int [] candidates, int candidateCount, int k){
+        TopK topK = new TopK(k);
+        for(int i = 0; i < candidateCount; i++) topK.offer(candidates[i], scores[candidates[i]]);
+        return topK.threshold();
+    }
+
+
+
+
+    /**
+     * Retrieve an indexed document
+     * @param index position of the document
+     * @return the URL at the position
+     */
+    public URL getDocument(int index){ return documents[index]; }
+
+
+
+
+    /**
+     * Number of indexed documents
+     * @return number of indexed documents
+     */
+    public int size(){ return documents.length; }
+
+
+
+
+    /**
+     * IDF version the index was built against, the index is out of date once IDF.getVersion() differs
+     * @return IDF version the index was built against
+     */
+    public long getIdfVersion(){ return idfVersion; }
+}
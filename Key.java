@@ -1,6 +1,6 @@
 /**
- * Word-frequency pairs purposed in constructing constant sized key's. Contains a custom char array of predetermined
- * size, and an int.
+ * Word-frequency pairs purposed in constructing constant sized key's. The word is held as its term ID from the
+ * TermDictionary, so a key is two ints.
  *
  * @author Tonia Sanzo
  * @version 1.0
@@ -10,12 +10,9 @@
 import java.nio.ByteBuffer;
 
 public class Key {
-    private static final int STRING_SIZE = 14;
-    private static final int KEY_SIZE = 32;
-    private static final char DELIMETER = '!';
+    static final int KEY_SIZE = 8;
 
-    private char [] string;
-    private String word;
+    private int termId;
     private int freq;
 
 
@@ -23,55 +20,50 @@ public class Key {
 
     /**
      * Construct a word-frequency pair object of constant size
-     * @param word String word, word.length > 12 will be truncated to 12 characters
+     * @param word String word, of any length
      * @param freq Number of word occurrences
      */
     public Key(String word, int freq){
+        this(termId(word), freq);
+    }
+
+
+
+
+    /**
+     * Construct a word-frequency pair object of constant size
+     * @param termId ID of the word in the TermDictionary
+     * @param freq Number of word occurrences
+     */
+    public Key(int termId, int freq){
+        this.termId = termId;
         this.freq = freq;
-        string = new char[STRING_SIZE];
-        char [] cString = word.toCharArray();
-        int i = 0;
-        while( i < cString.length && i < STRING_SIZE - 1){
-             string[i] = cString[i];
-             i++;
-        }
-
-        while(i < STRING_SIZE) {
-            string[i] = DELIMETER;
-            i++;
-        }
-
-
-
-        if(word.length() > 13){
-           this.word = word.substring(0,13);
-        } else {
-            this.word = word;
-        }
     }
 
 
 
 
     /**
-     * Byte array of a Key
-     * @return Key represented as a 32-Byte array
+     * Term ID a word is keyed by, interning the word if it has not been seen. The whole word is kept, so distinct
+     * words never share an ID
+     * @param word String word, of any length
+     * @return ID of the word in the TermDictionary
      */
-    public byte [] array(){
+    public static int termId(String word){
+        return TermDictionary.intern(word);
+    }
 
-        ByteBuffer bb = ByteBuffer.allocate(KEY_SIZE);
 
-        // Put string into the ByteBuffer
-        int i = 0;
-        while(string[i] != DELIMETER){
-            bb.putChar(string[i]);
-            i++;
-        }
-        bb.putChar(string[i]);
 
-        // Put freq into the ByteBuffer
-        bb.putInt(28,freq);
 
+    /**
+     * Byte array of a Key
+     * @return Key represented as an 8-Byte array
+     */
+    public byte [] array(){
+        ByteBuffer bb = ByteBuffer.allocate(KEY_SIZE);
+        bb.putInt(termId);
+        bb.putInt(freq);
         return bb.array();
     }
 
@@ -84,29 +76,13 @@ public class Key {
      * @return returns a Key object, if invalid byte array returns null
      */
     public static Key key(byte [] buffer){
-        char [] tempString = new char[STRING_SIZE];
-        String tempWord;
-        int tempFreq, i = 0;
-        ByteBuffer byteBuffer = ByteBuffer.allocate(32);
-        byteBuffer.put(buffer);
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
 
         // Determine byte array validity
-        tempString[STRING_SIZE - 1] = byteBuffer.getChar(i);
-        if(tempString[STRING_SIZE - 1] == '.' || tempString[STRING_SIZE - 1] == '!') return null;
-
-        // Determine word
-        do {
-            tempString[i] = tempString[STRING_SIZE - 1];
-            i++;
-            tempString[STRING_SIZE - 1] = byteBuffer.getChar(i << 1);
-        } while(tempString[STRING_SIZE - 1] != '!' && i < STRING_SIZE);
-        tempWord = String.copyValueOf(tempString,0,i);
-
-        // Determine frequency
-        tempFreq = byteBuffer.getInt(28);
-
-        byteBuffer.clear();
-        return new Key(tempWord,tempFreq);
+        int tempTermId = byteBuffer.getInt(0);
+        if(tempTermId == TermDictionary.NULL_ID) return null;
+
+        return new Key(tempTermId, byteBuffer.getInt(4));
     }
 
 
@@ -117,7 +93,7 @@ public class Key {
      * @return String representation of Key object
      */
     public String toString(){
-        return word + " " + freq;
+        return getWord() + " " + freq;
     }
 
 
@@ -127,7 +103,16 @@ public class Key {
      * Get word associated with Key object
      * @return word associated with Key object
      */
-    public String getWord(){ return word; }
+    public String getWord(){ return TermDictionary.word(termId); }
+
+
+
+
+    /**
+     * Get term ID associated with Key object
+     * @return ID of the word in the TermDictionary
+     */
+    public int getTermId(){ return termId; }
 
 
 
@@ -137,4 +122,4 @@ public class Key {
      * @return freq associated with Key object
      */
     public int getFreq(){ return freq; }
-}
\ No newline at end of file
+}
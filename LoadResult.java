@@ -0,0 +1,89 @@
+/**
+ * The outcome of loading the saved URL objects: the ones that loaded, in file order with no gaps, and the file index
+ * and cause of every one that did not
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+public class LoadResult {
+    private final URL [] urls;                  // Loaded URL objects, in file order
+    private final int [] indices;               // File index of each loaded URL object
+    private final int [] failedIndices;         // File index of each URL object that failed to load
+    private final Exception [] failures;        // Cause of each failure
+
+
+
+
+    /**
+     * Construct a result
+     * @param urls loaded URL objects, in file order
+     * @param indices file index of each loaded URL object
+     * @param failedIndices file index of each URL object that failed to load
+     * @param failures cause of each failure
+     */
+    public LoadResult(URL [] urls, int [] indices, int [] failedIndices, Exception [] failures){
+        this.urls = urls;
+        this.indices = indices;
+        this.failedIndices = failedIndices;
+        this.failures = failures;
+    }
+
+
+
+
+    /**
+     * Retrieve the loaded URL objects
+     * @return loaded URL objects, in file order with no null elements
+     */
+    public URL [] getURLs(){ return urls; }
+
+
+
+
+    /**
+     * Retrieve the file index of a loaded URL object
+     * @param i position in getURLs()
+     * @return the file index the URL object was loaded from
+     */
+    public int getIndex(int i){ return indices[i]; }
+
+
+
+
+    /**
+     * Whether every URL object loaded
+     * @return true if there were no failures
+     */
+    public boolean isComplete(){ return failures.length == 0; }
+
+
+
+
+    /**
+     * Number of URL objects that failed to load
+     * @return number of failures
+     */
+    public int getFailureCount(){ return failures.length; }
+
+
+
+
+    /**
+     * Retrieve the file index of a failure
+     * @param i failure number, less than getFailureCount()
+     * @return the file index that failed to load
+     */
+    public int getFailedIndex(int i){ return failedIndices[i]; }
+
+
+
+
+    /**
+     * Retrieve the cause of a failure
+     * @param i failure number, less than getFailureCount()
+     * @return the exception the file failed with
+     */
+    public Exception getFailure(int i){ return failures[i]; }
+}
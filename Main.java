@@ -13,6 +13,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.*;
 import java.io.IOException;
+import java.util.Arrays;
 
 public class Main extends Application {
     // JavaFX Nodes
@@ -21,15 +22,23 @@ public class Main extends Application {
     Label defLbl, ansLbl, epsLbl, minPtsLbl, clstrRsltLbl;
     TextField defFld, epsFld, minsPtsFld;
     Button defBtn, ansBtn, clstrBtn, clstrCalcBtn;
+    private static Corpus corpus;       // Saved web pages, loaded on first use
 
 
 
 
     /**
-     * launches GUI
-     * @param args Not used
+     * launches GUI, or with "--server [port]" runs QueryServer.main. Hosts without JavaFX run QueryServer directly
+     * @param args "--server" and an optional port for the headless server, otherwise not used
+     * @throws IOException if the server's port cannot be bound
      */
-    public static void main(String [] args) { launch(args); }
+    public static void main(String [] args) throws IOException {
+        if(args.length > 0 && args[0].equals("--server")) {
+            QueryServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        launch(args);
+    }
 
 
 
@@ -80,7 +89,8 @@ public class Main extends Application {
         URL tmpURL = mostSimilarWebPage(URLAddr);
 
         // Initialize answer scene
-        ansLbl = new Label("The most similar to " + URLAddr + " is " + tmpURL.getUrl());
+        if(tmpURL == null) ansLbl = new Label("No web page is similar to " + URLAddr);
+        else ansLbl = new Label("The most similar to " + URLAddr + " is " + tmpURL.getUrl());
         ansBtn = new Button("Home");
         ansBtn.setOnAction(e -> restart());
         VBox panel2 = new VBox(20);
@@ -135,23 +145,24 @@ public class Main extends Application {
      * Display Web page clusters
      */
     public void clusterGeneration(){
-        // Load URL objects
-        URL [] urlArray = SaveLoad.getURLS(104);
-        IDF.loadIDF();
-
         // Parse DBSCAN parameters specified in previous web page
         String epsStr = epsFld.getText();
         String minPtsStr = minsPtsFld.getText();
         double eps = Double.parseDouble(epsStr);
         int minPts = Integer.parseInt(minPtsStr);
 
+        // Load URL objects and their neighborhood graph, clearing the labels of any earlier run
+        NeighborhoodGraph graph = loadCorpus().neighborhoodGraph(eps);
+        URL [] urlArray = graph.getDocuments();
+        for(URL url : urlArray) url.setLabel(null);
+
         // execute DBSCAN algorithm
-        DBSCAN.dbScan(urlArray, eps, minPts);
+        ParallelDBSCAN.dbScan(graph, minPts);
         String clusterData = "Cluster Data\n\n\n";
         int j = 0, i = 0;
         // Organize URL cluster's
-        while(i < 104){
-            for(int i0 = 0; i0 < 104; i0++) {
+        while(i < urlArray.length){
+            for(int i0 = 0; i0 < urlArray.length; i0++) {
                 if (j == 0 && urlArray[i0].getLabel() == j) {
                     clusterData = clusterData.concat("Noise: " + urlArray[i0].getUrl() + "\n");
                     i++;
@@ -207,29 +218,50 @@ public class Main extends Application {
     /**
      * Determines the most similar web page
      * @param url A string that corresponds to a valid URL address
-     * @return returns the url that is most similar to the parameter url address
+     * @return returns the url that is most similar to the parameter url address, or null if no stored web page has a
+     *         positive similarity value with it
      */
     public URL mostSimilarWebPage(String url){
-        double similarityVal, biggestVal = 0;
-        URL mostSimilarURL = null;
+        SimilarityResult [] results = similarWebPages(url, 1);
+        if(results.length == 0) {
+            System.out.println("No web page is similar to " + url);
+            return null;
+        }
 
-        URL [] urlArray = SaveLoad.getURLS(104);
-        IDF.loadIDF();
+        System.out.println("The most similar to " + url + " is : " + results[0].getUrl().getUrl());
+        return results[0].getUrl();
+    }
 
-        URL url1 = new URL(url);
 
-        for(int i = 0; i < 104; i++){
-            similarityVal = URL.generateURLSimilarityVal(urlArray[i], url1);
-            System.out.println("Similarity Value between " + url + " and " + urlArray[i].getUrl() + "is " + similarityVal);
 
-            if(similarityVal >= biggestVal) {
-                mostSimilarURL = urlArray[i];
-                biggestVal = similarityVal;
-            }
-        }
 
-        System.out.println("The most similar to " + url + " is : " + mostSimilarURL.getUrl());
-        return mostSimilarURL;
+    /**
+     * Determines the k most similar web pages
+     * @param url A string that corresponds to a valid URL address
+     * @param k Number of web pages to return
+     * @return up to k stored web pages with a positive similarity value with the parameter url address, most similar
+     *         first
+     */
+    public SimilarityResult [] similarWebPages(String url, int k){
+        Corpus tempCorpus = loadCorpus();
+
+        URL url1 = URL.queryPage(url);
+
+        return tempCorpus.topK(url1.getVector(), k);
+    }
+
+
+
+
+    /**
+     * Retrieve the saved web pages, along with the term dictionary and IDF table. They are loaded on first use, and
+     * later calls only read back the files that changed
+     * @return the resident corpus
+     */
+    public static synchronized Corpus loadCorpus(){
+        if(corpus == null) corpus = new Corpus(SaveLoad.PAGE_COUNT);
+        else corpus.refresh();
+        return corpus;
     }
 
 
@@ -239,116 +271,136 @@ public class Main extends Application {
      * Generate and save 104 URL objects
      */
     public static void reloadLocalFiles(){
-        URL [] url = new URL[130];
-
-        url[0] = new URL("https://en.wikipedia.org/wiki/Yellowstone_National_Park");
-        url[1] = new URL("https://en.wikipedia.org/wiki/Adirondack_Mountains");
-        url[2] = new URL("https://en.wikipedia.org/wiki/Everglades_National_Park");
-        url[3] = new URL("https://en.wikipedia.org/wiki/Yosemite_National_Park");
-        url[4] = new URL("https://en.wikipedia.org/wiki/Grand_Canyon");
-        url[5] = new URL("https://en.wikipedia.org/wiki/Rocky_Mountains");
-        url[6] = new URL("https://en.wikipedia.org/wiki/Serengeti_National_Park");
-        url[7] = new URL("https://en.wikipedia.org/wiki/Sequoia_National_Park");
-        url[8] = new URL("https://en.wikipedia.org/wiki/Amazon_rainforest");
-        url[9] = new URL("https://en.wikipedia.org/wiki/Gal%C3%A1pagos_National_Park");
-        url[10] = new URL("https://en.wikipedia.org/wiki/Kruger_National_Park");
-        url[11] = new URL("https://en.wikipedia.org/wiki/Zion_National_Park");
-        url[12] = new URL("https://en.wikipedia.org/wiki/Glacier_National_Park_(U.S.)");
-        url[13] = new URL("https://en.wikipedia.org/wiki/Glacier_National_Park_(Canada)");
-        url[14] = new URL("https://en.wikipedia.org/wiki/Spaghetti");
-        url[15] = new URL("https://en.wikipedia.org/wiki/Pizza");
-        url[16] = new URL("https://en.wikipedia.org/wiki/Cheeseburger");
-        url[17] = new URL("https://en.wikipedia.org/wiki/Pineapple");
-        url[18] = new URL("https://en.wikipedia.org/wiki/Kiwifruit");
-        url[19] = new URL("https://en.wikipedia.org/wiki/Burrito");
-        url[20] = new URL("https://en.wikipedia.org/wiki/Ramen");
-        url[21] = new URL("https://en.wikipedia.org/wiki/Chinese_cuisine");
-        url[22] = new URL("https://en.wikipedia.org/wiki/American_Chinese_cuisine");
-        url[23] = new URL("https://en.wikipedia.org/wiki/Rice");
-        url[24] = new URL("https://en.wikipedia.org/wiki/Raspberries");
-        url[25] = new URL("https://en.wikipedia.org/wiki/Lebanese_cuisine");
-        url[26] = new URL("https://en.wikipedia.org/wiki/Deviled_egg");
-        url[27] = new URL("https://en.wikipedia.org/wiki/Pickled_cucumber");
-        url[28] = new URL("https://en.wikipedia.org/wiki/Cannoli");
-        url[29] = new URL("https://en.wikipedia.org/wiki/Cars");
-        url[30] = new URL("https://en.wikipedia.org/wiki/Porsche");
-        url[31] = new URL("https://en.wikipedia.org/wiki/Nissan");
-        url[32] = new URL("https://en.wikipedia.org/wiki/NASCAR");
-        url[33] = new URL("https://en.wikipedia.org/wiki/Lamborghini");
-        url[34] = new URL("https://en.wikipedia.org/wiki/Chevrolet_Impala");
-        url[35] = new URL("https://en.wikipedia.org/wiki/Pontiac_Firebird");
-        url[36] = new URL("https://en.wikipedia.org/wiki/Rallying");
-        url[37] = new URL("https://en.wikipedia.org/wiki/Skateboarding");
-        url[38] = new URL("https://en.wikipedia.org/wiki/Rodney_Mullen");
-        url[39] = new URL("https://en.wikipedia.org/wiki/Left_4_Dead_2");
-        url[40] = new URL("https://en.wikipedia.org/wiki/The_Berrics");
-        url[41] = new URL("https://en.wikipedia.org/wiki/Let%C3%ADcia_Bufoni");
-        url[42] = new URL("https://en.wikipedia.org/wiki/Kickflip");
-        url[43] = new URL("https://en.wikipedia.org/wiki/360_Kickflip");
-        url[44] = new URL("https://en.wikipedia.org/wiki/Chris_Cole_(skateboarder)");
-        url[45] = new URL("https://en.wikipedia.org/wiki/Heelflip");
-        url[46] = new URL("https://en.wikipedia.org/wiki/Woodward_Camp");
-        url[47] = new URL("https://en.wikipedia.org/wiki/Half-pipe");
-        url[48] = new URL("https://en.wikipedia.org/wiki/Mega_Ramp");
-        url[49] = new URL("https://en.wikipedia.org/wiki/FDR_Skatepark");
-        url[50] = new URL("https://en.wikipedia.org/wiki/Burnside_Skatepark");
-        url[51] = new URL("https://en.wikipedia.org/wiki/Coleman_Playground#Coleman_Playground_Skatepark");
-        url[52] = new URL("https://en.wikipedia.org/wiki/Primitive_Skateboarding");
-        url[53] = new URL("https://en.wikipedia.org/wiki/Dwindle_Distribution");
-        url[54] = new URL("https://en.wikipedia.org/wiki/Vans");
-        url[55] = new URL("https://en.wikipedia.org/wiki/Fox");
-        url[56] = new URL("https://en.wikipedia.org/wiki/Squirrel");
-        url[57] = new URL("https://en.wikipedia.org/wiki/Otter");
-        url[58] = new URL("https://en.wikipedia.org/wiki/Bluebird");
-        url[59] = new URL("https://en.wikipedia.org/wiki/House_sparrow");
-        url[60] = new URL("https://en.wikipedia.org/wiki/Deer");
-        url[61] = new URL("https://en.wikipedia.org/wiki/Bear");
-        url[62] = new URL("https://en.wikipedia.org/wiki/Wolf");
-        url[63] = new URL("https://en.wikipedia.org/wiki/Sheep");
-        url[64] = new URL("https://en.wikipedia.org/wiki/Dog");
-        url[65] = new URL("https://en.wikipedia.org/wiki/Cat");
-        url[66] = new URL("https://en.wikipedia.org/wiki/Wildebeest");
-        url[67] = new URL("https://en.wikipedia.org/wiki/Wolverine");
-        url[68] = new URL("https://en.wikipedia.org/wiki/Cattle");
-        url[69] = new URL("https://en.wikipedia.org/wiki/Human");
-        url[70] = new URL("https://en.wikipedia.org/wiki/Polar_bear");
-        url[71] = new URL("https://en.wikipedia.org/wiki/Bumblebee");
-        url[72] = new URL("https://en.wikipedia.org/wiki/Killer_whale");
-        url[73] = new URL("https://en.wikipedia.org/wiki/Dolphin");
-        url[74] = new URL("https://en.wikipedia.org/wiki/League_of_Legends");
-        url[75] = new URL("https://en.wikipedia.org/wiki/Skate_3");
-        url[76] = new URL("https://en.wikipedia.org/wiki/Grand_Theft_Auto_V");
-        url[77] = new URL("https://en.wikipedia.org/wiki/Civilization_VI");
-        url[78] = new URL("https://en.wikipedia.org/wiki/Reader_Rabbit");
-        url[79] = new URL("https://en.wikipedia.org/wiki/The_Legend_of_Zelda");
-        url[80] = new URL("https://en.wikipedia.org/wiki/Mario_Party");
-        url[81] = new URL("https://en.wikipedia.org/wiki/JumpStart");
-        url[82] = new URL("https://en.wikipedia.org/wiki/Warcraft_III:_Reign_of_Chaos");
-        url[83] = new URL("https://en.wikipedia.org/wiki/StarCraft_II:_Wings_of_Liberty");
-        url[84] = new URL("https://en.wikipedia.org/wiki/Fuzion_Frenzy");
-        url[85] = new URL("https://en.wikipedia.org/wiki/Medieval:_Total_War");
-        url[86] = new URL("https://en.wikipedia.org/wiki/The_Sims");
-        url[87] = new URL("https://en.wikipedia.org/wiki/Harry_Potter_and_the_Philosopher%27s_Stone");
-        url[88] = new URL("https://en.wikipedia.org/wiki/The_Lion_King");
-        url[89] = new URL("https://en.wikipedia.org/wiki/Chappie_(film)");
-        url[90] = new URL("https://en.wikipedia.org/wiki/A_Clockwork_Orange_(film)");
-        url[91] = new URL("https://en.wikipedia.org/wiki/Brown_bear");
-        url[92] = new URL("https://en.wikipedia.org/wiki/American_black_bear");
-        url[93] = new URL("https://en.wikipedia.org/wiki/Giant_panda");
-        url[94] = new URL("https://en.wikipedia.org/wiki/Grizzly_bear");
-        url[95] = new URL("https://en.wikipedia.org/wiki/Kodiak_bear");
-        url[96] = new URL("https://en.wikipedia.org/wiki/Sloth_bear");
-        url[97] = new URL("https://en.wikipedia.org/wiki/Asian_black_bear");
-        url[98] = new URL("https://en.wikipedia.org/wiki/Sun_bear");
-        url[99] = new URL("https://en.wikipedia.org/wiki/Spectacled_bear");
-        url[100] = new URL("https://en.wikipedia.org/wiki/The_Little_Mermaid_(1989_film)");
-        url[101] = new URL("https://en.wikipedia.org/wiki/WALL-E");
-        url[102] = new URL("https://en.wikipedia.org/wiki/Toy_Story");
-        url[103] = new URL("https://en.wikipedia.org/wiki/Requiem_for_a_Dream");
-
-        for(int i = 0; i < 104; i++){
+        String [] addresses = {
+            "https://en.wikipedia.org/wiki/Yellowstone_National_Park",
+            "https://en.wikipedia.org/wiki/Adirondack_Mountains",
+            "https://en.wikipedia.org/wiki/Everglades_National_Park",
+            "https://en.wikipedia.org/wiki/Yosemite_National_Park",
+            "https://en.wikipedia.org/wiki/Grand_Canyon",
+            "https://en.wikipedia.org/wiki/Rocky_Mountains",
+            "https://en.wikipedia.org/wiki/Serengeti_National_Park",
+            "https://en.wikipedia.org/wiki/Sequoia_National_Park",
+            "https://en.wikipedia.org/wiki/Amazon_rainforest",
+            "https://en.wikipedia.org/wiki/Gal%C3%A1pagos_National_Park",
+            "https://en.wikipedia.org/wiki/Kruger_National_Park",
+            "https://en.wikipedia.org/wiki/Zion_National_Park",
+            "https://en.wikipedia.org/wiki/Glacier_National_Park_(U.S.)",
+            "https://en.wikipedia.org/wiki/Glacier_National_Park_(Canada)",
+            "https://en.wikipedia.org/wiki/Spaghetti",
+            "https://en.wikipedia.org/wiki/Pizza",
+            "https://en.wikipedia.org/wiki/Cheeseburger",
+            "https://en.wikipedia.org/wiki/Pineapple",
+            "https://en.wikipedia.org/wiki/Kiwifruit",
+            "https://en.wikipedia.org/wiki/Burrito",
+            "https://en.wikipedia.org/wiki/Ramen",
+            "https://en.wikipedia.org/wiki/Chinese_cuisine",
+            "https://en.wikipedia.org/wiki/American_Chinese_cuisine",
+            "https://en.wikipedia.org/wiki/Rice",
+            "https://en.wikipedia.org/wiki/Raspberries",
+            "https://en.wikipedia.org/wiki/Lebanese_cuisine",
+            "https://en.wikipedia.org/wiki/Deviled_egg",
+            "https://en.wikipedia.org/wiki/Pickled_cucumber",
+            "https://en.wikipedia.org/wiki/Cannoli",
+            "https://en.wikipedia.org/wiki/Cars",
+            "https://en.wikipedia.org/wiki/Porsche",
+            "https://en.wikipedia.org/wiki/Nissan",
+            "https://en.wikipedia.org/wiki/NASCAR",
+            "https://en.wikipedia.org/wiki/Lamborghini",
+            "https://en.wikipedia.org/wiki/Chevrolet_Impala",
+            "https://en.wikipedia.org/wiki/Pontiac_Firebird",
+            "https://en.wikipedia.org/wiki/Rallying",
+            "https://en.wikipedia.org/wiki/Skateboarding",
+            "https://en.wikipedia.org/wiki/Rodney_Mullen",
+            "https://en.wikipedia.org/wiki/Left_4_Dead_2",
+            "https://en.wikipedia.org/wiki/The_Berrics",
+            "https://en.wikipedia.org/wiki/Let%C3%ADcia_Bufoni",
+            "https://en.wikipedia.org/wiki/Kickflip",
+            "https://en.wikipedia.org/wiki/360_Kickflip",
+            "https://en.wikipedia.org/wiki/Chris_Cole_(skateboarder)",
+            "https://en.wikipedia.org/wiki/Heelflip",
+            "https://en.wikipedia.org/wiki/Woodward_Camp",
+            "https://en.wikipedia.org/wiki/Half-pipe",
+            "https://en.wikipedia.org/wiki/Mega_Ramp",
+            "https://en.wikipedia.org/wiki/FDR_Skatepark",
+            "https://en.wikipedia.org/wiki/Burnside_Skatepark",
+            "https://en.wikipedia.org/wiki/Coleman_Playground#Coleman_Playground_Skatepark",
+            "https://en.wikipedia.org/wiki/Primitive_Skateboarding",
+            "https://en.wikipedia.org/wiki/Dwindle_Distribution",
+            "https://en.wikipedia.org/wiki/Vans",
+            "https://en.wikipedia.org/wiki/Fox",
+            "https://en.wikipedia.org/wiki/Squirrel",
+            "https://en.wikipedia.org/wiki/Otter",
+            "https://en.wikipedia.org/wiki/Bluebird",
+            "https://en.wikipedia.org/wiki/House_sparrow",
+            "https://en.wikipedia.org/wiki/Deer",
+            "https://en.wikipedia.org/wiki/Bear",
+            "https://en.wikipedia.org/wiki/Wolf",
+            "https://en.wikipedia.org/wiki/Sheep",
+            "https://en.wikipedia.org/wiki/Dog",
+            "https://en.wikipedia.org/wiki/Cat",
+            "https://en.wikipedia.org/wiki/Wildebeest",
+            "https://en.wikipedia.org/wiki/Wolverine",
+            "https://en.wikipedia.org/wiki/Cattle",
+            "https://en.wikipedia.org/wiki/Human",
+            "https://en.wikipedia.org/wiki/Polar_bear",
+            "https://en.wikipedia.org/wiki/Bumblebee",
+            "https://en.wikipedia.org/wiki/Killer_whale",
+            "https://en.wikipedia.org/wiki/Dolphin",
+            "https://en.wikipedia.org/wiki/League_of_Legends",
+            "https://en.wikipedia.org/wiki/Skate_3",
+            "https://en.wikipedia.org/wiki/Grand_Theft_Auto_V",
+            "https://en.wikipedia.org/wiki/Civilization_VI",
+            "https://en.wikipedia.org/wiki/Reader_Rabbit",
+            "https://en.wikipedia.org/wiki/The_Legend_of_Zelda",
+            "https://en.wikipedia.org/wiki/Mario_Party",
+            "https://en.wikipedia.org/wiki/JumpStart",
+            "https://en.wikipedia.org/wiki/Warcraft_III:_Reign_of_Chaos",
+            "https://en.wikipedia.org/wiki/StarCraft_II:_Wings_of_Liberty",
+            "https://en.wikipedia.org/wiki/Fuzion_Frenzy",
+            "https://en.wikipedia.org/wiki/Medieval:_Total_War",
+            "https://en.wikipedia.org/wiki/The_Sims",
+            "https://en.wikipedia.org/wiki/Harry_Potter_and_the_Philosopher%27s_Stone",
+            "https://en.wikipedia.org/wiki/The_Lion_King",
+            "https://en.wikipedia.org/wiki/Chappie_(film)",
+            "https://en.wikipedia.org/wiki/A_Clockwork_Orange_(film)",
+            "https://en.wikipedia.org/wiki/Brown_bear",
+            "https://en.wikipedia.org/wiki/American_black_bear",
+            "https://en.wikipedia.org/wiki/Giant_panda",
+            "https://en.wikipedia.org/wiki/Grizzly_bear",
+            "https://en.wikipedia.org/wiki/Kodiak_bear",
+            "https://en.wikipedia.org/wiki/Sloth_bear",
+            "https://en.wikipedia.org/wiki/Asian_black_bear",
+            "https://en.wikipedia.org/wiki/Sun_bear",
+            "https://en.wikipedia.org/wiki/Spectacled_bear",
+            "https://en.wikipedia.org/wiki/The_Little_Mermaid_(1989_film)",
+            "https://en.wikipedia.org/wiki/WALL-E",
+            "https://en.wikipedia.org/wiki/Toy_Story",
+            "https://en.wikipedia.org/wiki/Requiem_for_a_Dream"
+        };
+
+        // The corpus is crawled from scratch, so every page is counted afresh
+        IDF.clear();
+        URL [] url;
+        try {
+            url = new Crawler().crawl(addresses);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // Pages the crawler dropped leave null slots, the rest are saved in crawl order without gaps
+        url = Arrays.stream(url).filter(page -> page != null).toArray(URL[]::new);
+        for(int i = 0; i < url.length; i++){
             SaveLoad.saveURL(url[i], i);
         }
+
+        // Files of an earlier, larger crawl would otherwise be loaded with this one, and its trees are superseded
+        for(int i = url.length; i < addresses.length; i++){
+            SaveLoad.deleteURL(i);
+        }
+        SaveLoad.deleteUnusedTrees(url);
+        SaveLoad.saveDictionary();
         SaveLoad.saveIDF();
+        SaveLoad.saveSnapshot(url);
     }
 }
@@ -0,0 +1,231 @@
+/**
+ * Approximate nearest neighbor index over the term sets of a corpus, by MinHash and locality-sensitive hashing. Each
+ * web page gets a signature of bands * rows min-hashes of its term IDs; two pages agree on a min-hash with probability
+ * equal to the Jaccard similarity of their term sets. Pages are bucketed by each band of their signature, and pages
+ * sharing a bucket in any band are candidate neighbors, which are then scored exactly by TF-IDF.
+ *
+ * With Jaccard similarity s, a pair becomes candidates with probability 1 - (1 - s^rows)^bands. More bands raise
+ * recall, more rows per band cut the candidates and raise the similarity needed to be found.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class MinHashIndex {
+    public static final int DEFAULT_BANDS = 32;             // Bands of a signature
+    public static final int DEFAULT_ROWS = 2;               // Min-hashes per band
+    private static final long SEED = 0x5DEECE66DL;          // Seed of the hash functions, fixed so runs agree
+
+    private final URL [] documents;         // Indexed documents, buckets refer to their position
+    private final int bands, rows;          // Signature shape
+    private final long [] hashSeeds;        // Seed of each min-hash function
+    private final long [][] buckets;        // Per band, (bucket << 32 | document) sorted, so a bucket is a range
+
+
+
+
+    /**
+     * Construct an index with the default signature shape
+     * @param documents URL database
+     */
+    public MinHashIndex(URL [] documents){
+        this(documents, DEFAULT_BANDS, DEFAULT_ROWS);
+    }
+
+
+
+
+    /**
+     * Construct an index
+     * @param documents URL database
+     * @param bands bands of a signature, more raise recall
+     * @param rows min-hashes per band, more cut candidates
+     */
+    public MinHashIndex(URL [] documents, int bands, int rows){
+        if(bands <= 0 || rows <= 0) throw new IllegalArgumentException("bands and rows must be positive");
+        this.documents = documents;
+        this.bands = bands;
+        this.rows = rows;
+        SplittableRandom random = new SplittableRandom(SEED);
+        hashSeeds = new long[bands * rows];
+        for(int i0 = 0; i0 < hashSeeds.length; i0++) hashSeeds[i0] = random.nextLong();
+
+        // Bucket of every document in every band, pages without terms are left out
+        int [][] documentBuckets = new int[documents.length][];
+        Arrays.parallelSetAll(documentBuckets, i -> bandBuckets(documents[i].getVector().getTerms()));
+        int indexed = 0;
+        for(int [] bandBuckets : documentBuckets) if(bandBuckets != null) indexed++;
+
+        int [] positions = new int[indexed];
+        int count = 0;
+        for(int i1 = 0; i1 < documentBuckets.length; i1++) if(documentBuckets[i1] != null) positions[count++] = i1;
+
+        buckets = new long[bands][];
+        Arrays.parallelSetAll(buckets, band -> {
+            long [] entries = new long[positions.length];
+            for(int i2 = 0; i2 < positions.length; i2++){
+                int doc = positions[i2];
+                entries[i2] = ((long)documentBuckets[doc][band] << 32) | doc;
+            }
+            Arrays.sort(entries);
+            return entries;
+        });
+    }
+
+
+
+
+    /**
+     * Candidate neighbors of a set of terms: the documents sharing a bucket with it in any band
+     * @param terms ascending term IDs, such as DocumentVector.getTerms
+     * @return ascending, distinct document positions
+     */
+    public int [] candidates(int [] terms){
+        int [] bandBuckets = bandBuckets(terms);
+        if(bandBuckets == null) return new int[0];
+
+        int [] found = new int[16];
+        int count = 0;
+        for(int band = 0; band < bands; band++){
+            long [] entries = buckets[band];
+            int bucket = bandBuckets[band];
+            for(int i = lowerBound(entries, (long)bucket << 32); i < entries.length; i++){
+                if((entries[i] >> 32) != bucket) break;
+                if(count == found.length) found = Arrays.copyOf(found, count * 2);
+                found[count++] = (int)entries[i];
+            }
+        }
+
+        // Documents are found once per band shared
+        Arrays.sort(found, 0, count);
+        int distinct = 0;
+        for(int i = 0; i < count; i++){
+            if(distinct == 0 || found[distinct - 1] != found[i]) found[distinct++] = found[i];
+        }
+        return Arrays.copyOf(found, distinct);
+    }
+
+
+
+
+    /**
+     * Determines the k most similar documents to a query among its candidates, scored exactly. Similar documents that
+     * share no bucket with the query are missed
+     * @param query TF-IDF vector of the query web page
+     * @param k number of web pages to return, must be positive
+     * @param cosine whether to score by cosine similarity instead of dot product
+     * @return up to k web pages and their similarity values, most similar first
+     */
+    public SimilarityResult [] topK(DocumentVector query, int k, boolean cosine){
+        TopK topK = new TopK(k);
+        for(int doc : candidates(query.getTerms())){
+            DocumentVector vector = documents[doc].getVector();
+            double score = cosine ? query.cosine(vector) : query.dot(vector);
+            if(score > 0) topK.offer(doc, score);
+        }
+
+        int [] order = topK.sortedOrder();
+        SimilarityResult [] results = new SimilarityResult[order.length];
+        for(int i = 0; i < order.length; i++){
+            results[i] = new SimilarityResult(documents[topK.docAt(order[i])], topK.scoreAt(order[i]));
+        }
+        return results;
+    }
+
+
+
+
+    /**
+     * Hash each band of a term set's MinHash signature into a bucket
+     * @param terms term IDs
+     * @return bucket of each band, or null for an empty term set
+     */
+    private int [] bandBuckets(int [] terms){
+        if(terms.length == 0) return null;
+        int [] bandBuckets = new int[bands];
+        for(int band = 0; band < bands; band++){
+            long bucket = band;
+            for(int row = 0; row < rows; row++){
+                long seed = hashSeeds[band * rows + row];
+                long min = Long.MAX_VALUE;
+                for(int term : terms) min = Math.min(min, mix(term ^ seed));
+                bucket = mix(bucket ^ min);
+            }
+            bandBuckets[band] = (int)(bucket >>> 32);
+        }
+        return bandBuckets;
+    }
+
+
+
+
+    /**
+     * 64-bit finalizer of MurmurHash3, a well mixed hash of a long
+     * @param value value hashed
+     * @return hash of the value
+     */
+    private static long mix(long value){
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+
+
+
+    /**
+     * Position of the first entry not less than a value
+     * @param entries sorted entries
+     * @param value value searched
+     * @return position of the first entry at least value, or entries.length
+     */
+    private static int lowerBound(long [] entries, long value){
+        int low = 0, high = entries.length;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(entries[middle] < value) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+
+
+
+    /**
+     * Retrieve the indexed documents
+     * @return URL database the index was built over
+     */
+    public URL [] getDocuments(){ return documents; }
+
+
+
+
+    /**
+     * Retrieve the number of bands of a signature
+     * @return bands of a signature
+     */
+    public int getBands(){ return bands; }
+
+
+
+
+    /**
+     * Retrieve the number of min-hashes per band
+     * @return min-hashes per band
+     */
+    public int getRows(){ return rows; }
+
+
+
+
+    /**
+     * Number of indexed documents
+     * @return number of indexed documents
+     */
+    public int size(){ return documents.length; }
+}
@@ -0,0 +1,222 @@
+/**
+ * Eps-neighborhood graph of a corpus: for every web page, the pages whose similarity value with it is at least eps.
+ * Every pair is scored once by AllPairsSimilarity, and the graph is stored as compressed rows of neighbor indices, so
+ * DBSCAN can be run on it for any number of minPts values without scoring a pair again. A page is its own neighbor
+ * when its similarity value with itself reaches eps, as in the range query of DBSCAN.
+ *
+ * An approximate graph only scores the pairs a MinHashIndex proposes as candidates, turning the all-pairs scan into
+ * work near linear in the corpus, at the cost of missing neighbors that share no bucket.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+public class NeighborhoodGraph {
+    private final URL [] documents;         // Web pages, neighbors refer to their position
+    private final double eps;               // Smallest similarity value of neighbors
+    private final long idfVersion;          // IDF version the similarity values were computed against
+    private final boolean approximate;      // Whether only MinHash candidate pairs were scored
+    private final int [] offsets;           // Neighbors of page p are [offsets[p], offsets[p + 1])
+    private final int [] neighbors;         // Neighbor indices, ascending within a page
+
+
+
+
+    /**
+     * Construct a graph from its compressed rows
+     */
+    private NeighborhoodGraph(URL [] documents, double eps, long idfVersion, boolean approximate, int [] offsets,
+                              int [] neighbors){
+        this.documents = documents;
+        this.eps = eps;
+        this.idfVersion = idfVersion;
+        this.approximate = approximate;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+
+
+
+    /**
+     * Build the eps-neighborhood graph of a corpus by the similarity value of URL.generateURLSimilarityVal
+     * @param documents URL database
+     * @param eps Value compared against similarity metric
+     * @return the neighborhood graph
+     */
+    public static NeighborhoodGraph build(URL [] documents, double eps){
+        // Scalar scores, equal to URL.generateURLSimilarityVal
+        return build(documents, eps, false);
+    }
+
+
+
+
+    /**
+     * Build the eps-neighborhood graph of a corpus, scoring every pair
+     * @param documents URL database
+     * @param eps Value compared against similarity metric
+     * @param vectorized whether to score with the Vector API kernel when it is available, see AllPairsSimilarity
+     * @return the neighborhood graph
+     */
+    public static NeighborhoodGraph build(URL [] documents, double eps, boolean vectorized){
+        return new AllPairsSimilarity(documents, vectorized).neighborhoodGraph(eps);
+    }
+
+
+
+
+    /**
+     * Build an approximate eps-neighborhood graph, scoring only the candidate pairs of a MinHash index
+     * @param index MinHash index over the URL database
+     * @param eps Value compared against similarity metric
+     * @return the neighborhood graph, lacking the neighbors the index does not propose
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    public static NeighborhoodGraph build(MinHashIndex index, double eps){
+        URL [] documents = index.getDocuments();
+        long idfVersion = IDF.getVersion();
+        DocumentVector [] vectors = new DocumentVector[documents.length];
+        Arrays.parallelSetAll(vectors, i -> documents[i].getVector());
+
+        // Score each candidate pair once, from its lower page, until the calling thread is interrupted
+        int [][] rows = new int[documents.length][];
+        Thread caller = Thread.currentThread();
+        Arrays.parallelSetAll(rows, p -> {
+            if(caller.isInterrupted()) throw new CancellationException("Scoring interrupted");
+            int [] candidates = index.candidates(vectors[p].getTerms());
+            int size = 0;
+            for(int q : candidates){
+                if(q >= p && vectors[p].dot(vectors[q]) >= eps) candidates[size++] = q;
+            }
+            return Arrays.copyOf(candidates, size);
+        });
+        return fromRows(documents, eps, idfVersion, true, rows);
+    }
+
+
+
+
+    /**
+     * Assemble the compressed rows from each page's neighbors at or after it
+     * @param documents URL database
+     * @param eps Value compared against similarity metric
+     * @param idfVersion IDF version the similarity values were computed against
+     * @param approximate whether only MinHash candidate pairs were scored
+     * @param rows ascending neighbors of each page, none before the page, released as they are copied
+     * @return the neighborhood graph
+     */
+    static NeighborhoodGraph fromRows(URL [] documents, double eps, long idfVersion, boolean approximate,
+                                      int [][] rows){
+        // Each pair found is an edge in both directions
+        int [] offsets = new int[documents.length + 1];
+        for(int i0 = 0; i0 < rows.length; i0++){
+            for(int q : rows[i0]){
+                offsets[i0 + 1]++;
+                if(q != i0) offsets[q + 1]++;
+            }
+        }
+        for(int i1 = 0; i1 < documents.length; i1++) offsets[i1 + 1] += offsets[i1];
+
+        // Earlier pages fill a row before its own, so every row is ascending
+        int [] neighbors = new int[offsets[documents.length]];
+        int [] next = Arrays.copyOf(offsets, documents.length);
+        for(int i2 = 0; i2 < rows.length; i2++){
+            for(int q : rows[i2]){
+                neighbors[next[i2]++] = q;
+                if(q != i2) neighbors[next[q]++] = i2;
+            }
+            rows[i2] = null;
+        }
+        return new NeighborhoodGraph(documents, eps, idfVersion, approximate, offsets, neighbors);
+    }
+
+
+
+
+    /**
+     * Number of neighbors of a web page, itself included if it is its own neighbor
+     * @param page position of the web page
+     * @return number of neighbors
+     */
+    public int degree(int page){ return offsets[page + 1] - offsets[page]; }
+
+
+
+
+    /**
+     * Position of a web page's first neighbor, see neighborAt
+     * @param page position of the web page
+     * @return first slot of the page's neighbors
+     */
+    public int start(int page){ return offsets[page]; }
+
+
+
+
+    /**
+     * Position just past a web page's last neighbor, see neighborAt
+     * @param page position of the web page
+     * @return slot after the page's neighbors
+     */
+    public int end(int page){ return offsets[page + 1]; }
+
+
+
+
+    /**
+     * Retrieve a neighbor
+     * @param slot position between start(page) and end(page) of some page
+     * @return position of the neighboring web page
+     */
+    public int neighborAt(int slot){ return neighbors[slot]; }
+
+
+
+
+    /**
+     * Number of web pages in the graph
+     * @return number of web pages
+     */
+    public int size(){ return documents.length; }
+
+
+
+
+    /**
+     * Retrieve the web pages of the graph
+     * @return URL database the graph was built over
+     */
+    public URL [] getDocuments(){ return documents; }
+
+
+
+
+    /**
+     * Smallest similarity value of neighbors
+     * @return eps the graph was built with
+     */
+    public double getEps(){ return eps; }
+
+
+
+
+    /**
+     * IDF version the graph was built against, the graph is out of date once IDF.getVersion() differs
+     * @return IDF version the graph was built against
+     */
+    public long getIdfVersion(){ return idfVersion; }
+
+
+
+
+    /**
+     * Whether the graph only holds the neighbors a MinHash index proposed
+     * @return true for an approximate graph
+     */
+    public boolean isApproximate(){ return approximate; }
+}
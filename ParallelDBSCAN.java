@@ -0,0 +1,216 @@
+/**
+ * DBSCAN clustering run in parallel over a neighborhood graph. Core points are found concurrently, every edge between
+ * two core points is merged through a lock-free union-find, and border points then join their adjacent cluster, each
+ * phase split across a fork-join pool.
+ *
+ * Union-find always links the larger root under the smaller, so each cluster's root is its lowest core point, the
+ * point the sequential DBSCAN starts the cluster from. Numbering clusters by root and giving a border point to its
+ * lowest adjacent cluster, the one that reaches it first in the sequential expansion, yields exactly the labels of
+ * DBSCAN.dbScan.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+public class ParallelDBSCAN {
+    private static final int NOISE = 0;             // Value used to represent noise
+    private static final int GRAIN = 1024;          // Points handled by one task without splitting
+
+
+
+
+    /**
+     * Using a URL database generates the cluster using DBSCAN, in parallel
+     * @param urlArray URL database
+     * @param eps Value compared against similarity metric
+     * @param minPts URLS within radius necessary to join cluster
+     */
+    public static void dbScan(URL [] urlArray, double eps, int minPts){
+        dbScan(NeighborhoodGraph.build(urlArray, eps), minPts);
+    }
+
+
+
+
+    /**
+     * Generates the cluster using DBSCAN over a precomputed neighborhood graph, in parallel. Every web page of the
+     * graph is labeled, earlier labels are overwritten
+     * @param graph eps-neighborhood graph of the URL database, whose web pages are labeled
+     * @param minPts URLS within radius necessary to join cluster
+     */
+    public static void dbScan(NeighborhoodGraph graph, int minPts){
+        URL [] urlArray = graph.getDocuments();
+        int [] labels = cluster(graph, minPts);
+        forEach(urlArray.length, p -> urlArray[p].setLabel(labels[p]));
+    }
+
+
+
+
+    /**
+     * Cluster the web pages of a neighborhood graph. Interrupting the calling thread stops the run between phases
+     * @param graph eps-neighborhood graph
+     * @param minPts URLS within radius necessary to join cluster
+     * @return label of each web page, 0 for noise and clusters numbered from 1
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    public static int [] cluster(NeighborhoodGraph graph, int minPts){
+        int size = graph.size();
+        boolean [] core = new boolean[size];
+        AtomicIntegerArray parent = new AtomicIntegerArray(size);
+
+        // Core points, each its own set to start with
+        forEach(size, p -> {
+            core[p] = graph.degree(p) >= minPts;
+            parent.set(p, p);
+        });
+
+        // Merge neighboring core points, each edge from its lower end
+        checkInterrupted();
+        forEach(size, p -> {
+            if(!core[p]) return;
+            for(int i = graph.start(p); i < graph.end(p); i++){
+                int q = graph.neighborAt(i);
+                if(q > p && core[q]) union(parent, p, q);
+            }
+        });
+
+        // Number the clusters in order of their lowest core point
+        checkInterrupted();
+        int [] clusterIds = new int[size];
+        int clusterCounter = 0;
+        for(int p = 0; p < size; p++){
+            if(core[p] && parent.get(p) == p) clusterIds[p] = ++clusterCounter;
+        }
+
+        // Core points take their cluster's number, border points their lowest adjacent cluster's
+        checkInterrupted();
+        int [] labels = new int[size];
+        forEach(size, p -> {
+            if(core[p]) {
+                labels[p] = clusterIds[find(parent, p)];
+                return;
+            }
+            int root = Integer.MAX_VALUE;
+            for(int i = graph.start(p); i < graph.end(p); i++){
+                int q = graph.neighborAt(i);
+                if(core[q]) root = Math.min(root, find(parent, q));
+            }
+            labels[p] = (root == Integer.MAX_VALUE) ? NOISE : clusterIds[root];
+        });
+        return labels;
+    }
+
+
+
+
+    /**
+     * Stop a run whose calling thread was interrupted, such as a request past its deadline
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    private static void checkInterrupted(){
+        if(Thread.currentThread().isInterrupted()) throw new CancellationException("DBSCAN interrupted");
+    }
+
+
+
+
+    /**
+     * Find the root of a point's set, halving the path on the way
+     * @param parent parent of each point, a root is its own parent
+     * @param p point
+     * @return root of the point's set
+     */
+    private static int find(AtomicIntegerArray parent, int p){
+        int next = parent.get(p);
+        while(next != p){
+            int grandparent = parent.get(next);
+            // Another thread may have moved p already, the halving is only a shortcut
+            parent.compareAndSet(p, next, grandparent);
+            p = grandparent;
+            next = parent.get(p);
+        }
+        return p;
+    }
+
+
+
+
+    /**
+     * Merge the sets of two points, the larger root is linked under the smaller
+     * @param parent parent of each point, a root is its own parent
+     * @param p point
+     * @param q point
+     */
+    private static void union(AtomicIntegerArray parent, int p, int q){
+        while(true){
+            int rootP = find(parent, p), rootQ = find(parent, q);
+            if(rootP == rootQ) return;
+            int high = Math.max(rootP, rootQ), low = Math.min(rootP, rootQ);
+            // Fails if high stopped being a root, then try again from the new roots
+            if(parent.compareAndSet(high, high, low)) return;
+        }
+    }
+
+
+
+
+    /**
+     * Run an action for every point, split across the common fork-join pool
+     * @param size number of points
+     * @param action action run for each point
+     */
+    private static void forEach(int size, IntConsumer action){
+        ForkJoinPool.commonPool().invoke(new RangeTask(0, size, action));
+    }
+
+
+
+
+    /**
+     * Task running an action over a range of points, split in halves down to GRAIN points
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;        // Serialized form, changed only on purpose
+        private final int start, end;           // Range of points [start, end)
+        private final IntConsumer action;       // Action run for each point
+
+
+
+
+        /**
+         * Construct a task
+         * @param start first point
+         * @param end point after the last
+         * @param action action run for each point
+         */
+        RangeTask(int start, int end, IntConsumer action){
+            this.start = start;
+            this.end = end;
+            this.action = action;
+        }
+
+
+
+
+        /**
+         * Run the action over the range, or split it
+         */
+        @Override
+        protected void compute(){
+            if(end - start <= GRAIN) {
+                for(int p = start; p < end; p++) action.accept(p);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new RangeTask(start, middle, action), new RangeTask(middle, end, action));
+        }
+    }
+}
@@ -0,0 +1,538 @@
+/**
+ * Headless HTTP API over a shared, resident corpus, served by the JDK HttpServer with a virtual thread per request.
+ *
+ *   GET  /similar?url=ADDRESS&k=5          the k stored web pages most similar to ADDRESS
+ *   POST /similar/batch?k=5                one address per line of the body, the queries run concurrently
+ *   GET  /clusters?eps=0.00077&minPts=4    DBSCAN labels of every stored web page
+ *
+ * Responses are JSON. Every request runs against a deadline, and answers 504 once it passes. Any endpoint takes
+ * approximate=true to search the MinHash index instead of scoring every candidate exactly. k is at most 1000, larger
+ * values answer 400. The corpus is refreshed from disk at most every few seconds, as requests arrive.
+ *
+ * Run on its own it takes the port, then --bands N and --rows N to shape the MinHash signatures and --vectorized to
+ * score exact clusterings with the Vector API kernel.
+ *
+ * Query web pages are fetched by the server, so only http and https addresses on allowed hosts are accepted: the
+ * hosts given, or by default the hosts of the stored web pages.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jsoup.Jsoup;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class QueryServer {
+    public static final int DEFAULT_PORT = 8080;
+    private static final long DEFAULT_TIMEOUT_MILLIS = 10_000;  // Deadline of a request
+    private static final int DEFAULT_K = 5;                      // Web pages returned when k is not given
+    private static final int MAX_K = 1_000;                      // Web pages a query may ask for
+    private static final int MAX_BATCH = 256;                    // Addresses allowed in one batch
+    private static final long REFRESH_MILLIS = 5_000;            // Least time between refreshes of the corpus
+
+    private final Corpus corpus;                    // Shared, resident corpus
+    private final Crawler.Fetcher fetcher;          // Retrieves the raw HTML of a query web page
+    private final long timeoutMillis;               // Deadline of a request
+    private final ExecutorService workers;          // Virtual threads running requests and queries
+    private final Set<String> allowedHosts;         // Hosts query web pages may be fetched from, null for the corpus's
+    private final AtomicLong nextRefresh = new AtomicLong();        // Time the corpus is next refreshed, in ms
+    private volatile Set<String> corpusHosts;       // Hosts of the stored web pages
+    private HttpServer server;
+
+
+
+
+    /**
+     * Serve the saved web pages over HTTP. The server does not depend on JavaFX, so it runs on headless hosts
+     * @param args an optional port, DEFAULT_PORT when absent, then any of "--bands N" and "--rows N" to shape the
+     *             MinHash signatures of approximate requests, and "--vectorized" to score exact clusterings with the
+     *             Vector API kernel
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String [] args) throws IOException {
+        int port = DEFAULT_PORT, bands = MinHashIndex.DEFAULT_BANDS, rows = MinHashIndex.DEFAULT_ROWS;
+        boolean vectorized = false;
+        for(int i = 0; i < args.length; i++){
+            if(args[i].equals("--bands")) bands = Integer.parseInt(args[++i]);
+            else if(args[i].equals("--rows")) rows = Integer.parseInt(args[++i]);
+            else if(args[i].equals("--vectorized")) vectorized = true;
+            else port = Integer.parseInt(args[i]);
+        }
+        Corpus corpus = new Corpus(SaveLoad.PAGE_COUNT);
+        corpus.setMinHashShape(bands, rows);
+        corpus.setVectorized(vectorized);
+        QueryServer server = new QueryServer(corpus);
+        server.start(port);
+        System.out.println("Serving " + corpus.getDocuments().length + " web pages on port " + server.getPort());
+    }
+
+
+
+
+    /**
+     * Construct a server that fetches query web pages with Jsoup, from the hosts of the stored web pages. Redirects
+     * are not followed, so an allowed host cannot hand the fetch on to another
+     * @param corpus shared, resident corpus
+     */
+    public QueryServer(Corpus corpus){
+        this(corpus, url -> Jsoup.connect(url).followRedirects(false).execute().body(), DEFAULT_TIMEOUT_MILLIS);
+    }
+
+
+
+
+    /**
+     * Construct a server that fetches query web pages from the hosts of the stored web pages
+     * @param corpus shared, resident corpus
+     * @param fetcher retrieves the raw HTML of a query web page
+     * @param timeoutMillis deadline of a request, in milliseconds
+     */
+    public QueryServer(Corpus corpus, Crawler.Fetcher fetcher, long timeoutMillis){
+        this(corpus, fetcher, timeoutMillis, null);
+    }
+
+
+
+
+    /**
+     * Construct a server
+     * @param corpus shared, resident corpus
+     * @param fetcher retrieves the raw HTML of a query web page
+     * @param timeoutMillis deadline of a request, in milliseconds
+     * @param allowedHosts hosts query web pages may be fetched from, or null for the hosts of the stored web pages
+     */
+    public QueryServer(Corpus corpus, Crawler.Fetcher fetcher, long timeoutMillis, Set<String> allowedHosts){
+        this.corpus = corpus;
+        this.fetcher = fetcher;
+        this.timeoutMillis = timeoutMillis;
+        this.workers = VirtualThreads.newExecutor();
+        this.allowedHosts = (allowedHosts == null) ? null : lowerCase(allowedHosts);
+        this.corpusHosts = hosts(corpus.getDocuments());
+        nextRefresh.set(System.currentTimeMillis() + REFRESH_MILLIS);
+    }
+
+
+
+
+    /**
+     * Start serving
+     * @param port port to listen on, 0 picks a free port
+     * @throws IOException if the port cannot be bound
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(workers);
+        server.createContext("/similar/batch", exchange -> handle(exchange, "POST", () -> batch(exchange)));
+        server.createContext("/similar", exchange -> handle(exchange, "GET", () -> similar(exchange)));
+        server.createContext("/clusters", exchange -> handle(exchange, "GET", () -> clusters(exchange)));
+        server.start();
+    }
+
+
+
+
+    /**
+     * Stop serving, waiting up to a second for requests in progress
+     */
+    public void stop(){
+        if(server != null) server.stop(1);
+        workers.shutdownNow();
+    }
+
+
+
+
+    /**
+     * Port the server listens on
+     * @return bound port
+     */
+    public int getPort(){ return server.getAddress().getPort(); }
+
+
+
+
+    /**
+     * Run a request against the deadline and write its response
+     * @param exchange the request
+     * @param method HTTP method the endpoint accepts
+     * @param request computes the JSON response
+     */
+    private void handle(HttpExchange exchange, String method, Callable<String> request) throws IOException {
+        try {
+            if(!exchange.getRequestMethod().equals(method)) {
+                respond(exchange, 405, error("Use " + method));
+                return;
+            }
+            // The refresh counts against the request's deadline like the rest of its work
+            respond(exchange, 200, withDeadline(() -> {
+                refreshIfDue();
+                return request.call();
+            }));
+        } catch(TimeoutException ex) {
+            respond(exchange, 504, error("Timed out after " + timeoutMillis + " ms"));
+        } catch(IllegalArgumentException ex) {
+            respond(exchange, 400, error(ex.getMessage()));
+        } catch(Exception ex) {
+            respond(exchange, 500, error(String.valueOf(ex)));
+        } finally {
+            exchange.close();
+        }
+    }
+
+
+
+
+    /**
+     * Top-k query of a single web page
+     * @param exchange the request
+     * @return JSON array of results
+     */
+    private String similar(HttpExchange exchange) throws Exception {
+        Map<String, String> params = params(exchange);
+        String url = params.get("url");
+        if(url == null || url.isEmpty()) throw new IllegalArgumentException("Missing url");
+        return resultsJson(query(url, intParam(params, "k", DEFAULT_K, MAX_K), booleanParam(params, "approximate")));
+    }
+
+
+
+
+    /**
+     * Top-k queries of a batch of web pages, fetched and scored concurrently
+     * @param exchange the request, one address per line of the body
+     * @return JSON array with the results or error of each address, in request order
+     */
+    private String batch(HttpExchange exchange) throws Exception {
+        Map<String, String> params = params(exchange);
+        int k = intParam(params, "k", DEFAULT_K, MAX_K);
+        boolean approximate = booleanParam(params, "approximate");
+        String [] urls = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).trim()
+                .split("\\s*\\n\\s*");
+        if(urls.length == 1 && urls[0].isEmpty()) throw new IllegalArgumentException("Empty batch");
+        if(urls.length > MAX_BATCH) throw new IllegalArgumentException("Batch larger than " + MAX_BATCH);
+
+        List<Future<SimilarityResult []>> futures = new ArrayList<>(urls.length);
+        for(String url : urls){
+            futures.add(workers.submit(() -> query(url, k, approximate)));
+        }
+
+        StringBuilder json = new StringBuilder("[");
+        try {
+            for(int i1 = 0; i1 < urls.length; i1++){
+                if(i1 > 0) json.append(',');
+                json.append("{\"url\":").append(quote(urls[i1])).append(',');
+                try {
+                    String results = resultsJson(futures.get(i1).get());
+                    json.append("\"results\":").append(results);
+                } catch(ExecutionException ex) {
+                    json.append("\"error\":").append(quote(String.valueOf(ex.getCause())));
+                }
+                json.append('}');
+            }
+        } finally {
+            // Past the deadline the batch is interrupted, stop the queries still running
+            for(Future<SimilarityResult []> future : futures) future.cancel(true);
+        }
+        return json.append(']').toString();
+    }
+
+
+
+
+    /**
+     * DBSCAN labels of every stored web page
+     * @param exchange the request
+     * @return JSON array of each web page and its label, 0 for noise
+     */
+    private String clusters(HttpExchange exchange) throws Exception {
+        Map<String, String> params = params(exchange);
+        double eps = doubleParam(params, "eps", 0.00077);
+        int minPts = intParam(params, "minPts", 4, Integer.MAX_VALUE);
+        boolean approximate = booleanParam(params, "approximate");
+
+        // Labels are kept per request rather than set on the shared web pages, so runs need no lock, and a run past
+        // its deadline is interrupted and stops scoring and clustering
+        NeighborhoodGraph graph = corpus.neighborhoodGraph(eps, approximate);
+        URL [] urlArray = graph.getDocuments();
+        int [] labels = ParallelDBSCAN.cluster(graph, minPts);
+
+        StringBuilder json = new StringBuilder("[");
+        for(int i = 0; i < urlArray.length; i++){
+            if(i > 0) json.append(',');
+            json.append("{\"url\":").append(quote(urlArray[i].getUrl()))
+                    .append(",\"label\":").append(labels[i]).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+
+
+
+    /**
+     * Fetch a web page and query the corpus with it
+     * @param url address of the query web page
+     * @param k number of web pages to return
+     * @param approximate whether to search the MinHash index
+     * @return up to k web pages and their similarity values, most similar first
+     * @throws IllegalArgumentException if the address is not http or https on an allowed host
+     */
+    private SimilarityResult [] query(String url, int k, boolean approximate) throws IOException {
+        checkAddress(url);
+        String html = fetcher.fetch(url);
+        TermFrequencyMap wordFreq = URL.countWords(Jsoup.parse(html, url).getElementsByTag("p"));
+        DocumentVector vector = URL.queryPage(url, wordFreq).getVector();
+        return approximate ? corpus.approximateTopK(vector, k) : corpus.topK(vector, k);
+    }
+
+
+
+
+    /**
+     * Reject an address the server must not fetch
+     * @param url address of the query web page
+     * @throws IllegalArgumentException if the address is not http or https on an allowed host
+     */
+    private void checkAddress(String url){
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch(URISyntaxException ex) {
+            throw new IllegalArgumentException("Bad url: " + url);
+        }
+        String scheme = uri.getScheme(), host = uri.getHost();
+        if(scheme == null || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https")))
+            throw new IllegalArgumentException("Only http and https urls are fetched: " + url);
+        Set<String> hosts = (allowedHosts != null) ? allowedHosts : corpusHosts;
+        if(host == null || !hosts.contains(host.toLowerCase(Locale.ROOT)))
+            throw new IllegalArgumentException("Host not allowed: " + url);
+    }
+
+
+
+
+    /**
+     * Refresh the corpus from disk once REFRESH_MILLIS have passed since the last refresh, within the deadline of the
+     * request that finds it due while the others carry on with the resident corpus
+     */
+    private void refreshIfDue(){
+        long now = System.currentTimeMillis(), due = nextRefresh.get();
+        if(now < due || !nextRefresh.compareAndSet(due, now + REFRESH_MILLIS)) return;
+        if(corpus.refresh()) corpusHosts = hosts(corpus.getDocuments());
+    }
+
+
+
+
+    /**
+     * Hosts of a set of web pages
+     * @param documents URL database
+     * @return lower case host of every web page with one
+     */
+    private static Set<String> hosts(URL [] documents){
+        Set<String> hosts = new HashSet<>();
+        for(URL url : documents){
+            try {
+                String host = new URI(url.getUrl()).getHost();
+                if(host != null) hosts.add(host.toLowerCase(Locale.ROOT));
+            } catch(URISyntaxException ex) { }
+        }
+        return hosts;
+    }
+
+
+
+
+    /**
+     * Lower case copy of a set of hosts
+     * @param hosts host names
+     * @return the hosts, lower case
+     */
+    private static Set<String> lowerCase(Set<String> hosts){
+        Set<String> copy = new HashSet<>();
+        for(String host : hosts) copy.add(host.toLowerCase(Locale.ROOT));
+        return copy;
+    }
+
+
+
+
+    /**
+     * Run a request on its own virtual thread, giving up once the deadline passes
+     * @param request computes the response
+     * @return the response
+     * @throws TimeoutException if the deadline passed, the request is interrupted
+     */
+    private String withDeadline(Callable<String> request) throws Exception {
+        Future<String> future = workers.submit(request);
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch(TimeoutException ex) {
+            future.cancel(true);
+            throw ex;
+        } catch(ExecutionException ex) {
+            if(ex.getCause() instanceof Exception) throw (Exception)ex.getCause();
+            throw ex;
+        }
+    }
+
+
+
+
+    /**
+     * Write a JSON response
+     * @param exchange the request
+     * @param status HTTP status code
+     * @param json response body
+     */
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte [] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+
+
+
+    /**
+     * Decode the query string of a request
+     * @param exchange the request
+     * @return parameter name-value pairs
+     */
+    private static Map<String, String> params(HttpExchange exchange){
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if(query == null) return params;
+
+        for(String pair : query.split("&")){
+            int split = pair.indexOf('=');
+            if(split < 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, split), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(split + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+
+
+
+    /**
+     * Parse a positive int parameter no larger than a bound
+     * @param max largest value accepted, so a request cannot size its results past it
+     * @return the parameter's value, or the default if it is absent
+     */
+    private static int intParam(Map<String, String> params, String name, int defaultValue, int max){
+        String value = params.get(name);
+        if(value == null) return defaultValue;
+        try {
+            int parsed = Integer.parseInt(value);
+            if(parsed > 0 && parsed <= max) return parsed;
+        } catch(NumberFormatException ex) { }
+        throw new IllegalArgumentException("Bad " + name + ": " + value);
+    }
+
+
+
+
+    /**
+     * Parse a finite double parameter
+     * @return the parameter's value, or the default if it is absent
+     */
+    private static double doubleParam(Map<String, String> params, String name, double defaultValue){
+        String value = params.get(name);
+        if(value == null) return defaultValue;
+        try {
+            double parsed = Double.parseDouble(value);
+            if(Double.isFinite(parsed)) return parsed;
+        } catch(NumberFormatException ex) { }
+        throw new IllegalArgumentException("Bad " + name + ": " + value);
+    }
+
+
+
+
+    /**
+     * Parse a boolean parameter
+     * @return the parameter's value, false if it is absent
+     */
+    private static boolean booleanParam(Map<String, String> params, String name){
+        String value = params.get(name);
+        if(value == null || value.equals("false")) return false;
+        if(value.equals("true")) return true;
+        throw new IllegalArgumentException("Bad " + name + ": " + value);
+    }
+
+
+
+
+    /**
+     * Convert results into JSON
+     * @param results web pages and their similarity values
+     * @return JSON array of results
+     */
+    private static String resultsJson(SimilarityResult [] results){
+        StringBuilder json = new StringBuilder("[");
+        for(int i = 0; i < results.length; i++){
+            if(i > 0) json.append(',');
+            json.append("{\"url\":").append(quote(results[i].getUrl().getUrl()))
+                    .append(",\"score\":").append(results[i].getScore()).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+
+
+
+    /**
+     * JSON error object
+     * @param message error message
+     * @return JSON object
+     */
+    private static String error(String message){
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+
+
+
+    /**
+     * Quote a String as a JSON string
+     * @param str String quoted
+     * @return JSON string literal
+     */
+    private static String quote(String str){
+        StringBuilder json = new StringBuilder(str.length() + 2).append('"');
+        for(int i = 0; i < str.length(); i++){
+            char c = str.charAt(i);
+            if(c == '"' || c == '\\') json.append('\\').append(c);
+            else if(c < 0x20) json.append(String.format("\\u%04x", (int)c));
+            else json.append(c);
+        }
+        return json.append('"').toString();
+    }
+}
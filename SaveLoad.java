@@ -7,11 +7,24 @@
  */
 
 import java.io.*;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SaveLoad {
     final static String IDF_PATH = System.getProperty("user.dir").concat("/src/IDF/hashmap");  // Path to the IDF folder
     final static String URL_PATH = System.getProperty("user.dir").concat("/src/URLS/"); // Path to the URLS folder
+    final static String DICTIONARY_PATH = System.getProperty("user.dir").concat("/src/IDF/dictionary"); // Path to the term dictionary
+    final static String SNAPSHOT_PATH = System.getProperty("user.dir").concat("/src/corpus.snapshot"); // Path to the corpus snapshot
+    final static int PAGE_COUNT = 104;                            // Web pages saved by Main.reloadLocalFiles
+    private final static int DICTIONARY_MAGIC = 0x54444331;       // "TDC1", front coded dictionary file
 
 
 
@@ -46,48 +59,143 @@ public class SaveLoad {
 
 
     /**
-     * Reads a specified number of URLS stored in memory
-     * @param numbURL How many URLs are saved in the URL folder
-     * @return returns an array of URL objects
+     * Deletes a saved URL object from the URLS directory, if there is one
+     * @param index The URL object's file name, as given to saveURL
      */
-    public static URL[] getURLS(int numbURL){
-        URL [] urlArr = new URL[numbURL];
+    public static void deleteURL(Integer index) {
+        try {
+            Files.deleteIfExists(Paths.get(URL_PATH.concat(index.toString())));
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
 
-        // Deserialize a URL object, and add it to the URL array
-        for(Integer i = 0; i < numbURL; i++) {
-            try {
-                FileInputStream file = new FileInputStream(URL_PATH.concat(i.toString()));
-                ObjectInputStream in = new ObjectInputStream(file);
 
-                urlArr[i] = (URL)in.readObject();
 
-                in.close();
-                file.close();
 
-            } catch(IOException ex) {
-                ex.printStackTrace();
-            } catch(ClassNotFoundException ex) {
-                ex.printStackTrace();
+    /**
+     * Deletes the tree files that none of the saved URL objects uses, left behind by the pages of an earlier crawl
+     * @param urlArr every saved URL object, whose trees are kept
+     */
+    public static void deleteUnusedTrees(URL [] urlArr) {
+        Set<String> inUse = new HashSet<>();
+        for(URL url : urlArr) {
+            String fileName = url.getTree().getFilename();
+            if(fileName != null) inUse.add(fileName);
+        }
+
+        try {
+            BTree.deleteFilesExcept(inUse);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+
+
+
+    /**
+     * Reads the given URL files, read and deserialized in parallel with one thread per core
+     * @param fileIndices file indices of the URL objects to read, ascending
+     * @return the URL objects that loaded, and the file index and cause of each failure
+     */
+    public static LoadResult loadURLS(int [] fileIndices){
+        int numbURL = fileIndices.length;
+        URL [] urlArr = new URL[numbURL];
+        Exception [] errors = new Exception[numbURL];
+        AtomicInteger next = new AtomicInteger();             // Next file to claim
+        int threadCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), numbURL));
+        ExecutorService loaders = Executors.newFixedThreadPool(threadCount);
+
+        // Each loader claims files until none remain
+        for(int i0 = 0; i0 < threadCount; i0++){
+            loaders.execute(() -> {
+                for(int file = next.getAndIncrement(); file < numbURL; file = next.getAndIncrement()) {
+                    try {
+                        urlArr[file] = readURL(fileIndices[file]);
+                    } catch(IOException | ClassNotFoundException | RuntimeException ex) {
+                        errors[file] = ex;
+                    }
+                }
+            });
+        }
+        loaders.shutdown();
+        try {
+            while(!loaders.awaitTermination(1, TimeUnit.MINUTES));
+        } catch(InterruptedException ex) {
+            loaders.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        // Compact the loaded URL objects, and gather the failures
+        int loaded = 0;
+        for(URL url : urlArr) { if(url != null) loaded++; }
+        URL [] urls = new URL[loaded];
+        int [] indices = new int[loaded];
+        int [] failedIndices = new int[numbURL - loaded];
+        Exception [] failures = new Exception[numbURL - loaded];
+        int failed = 0;
+        loaded = 0;
+        for(int i1 = 0; i1 < numbURL; i1++) {
+            if(urlArr[i1] != null) {
+                urls[loaded] = urlArr[i1];
+                indices[loaded++] = fileIndices[i1];
+            } else {
+                failedIndices[failed] = fileIndices[i1];
+                failures[failed++] = (errors[i1] != null) ? errors[i1] : new InterruptedException("Not loaded");
             }
         }
+        return new LoadResult(urls, indices, failedIndices, failures);
+    }
 
-        return urlArr;
+
+
+
+    /**
+     * Deserialize a URL object
+     * @param index the URL object's file name
+     * @return the URL object
+     * @throws IOException if the file cannot be read
+     * @throws ClassNotFoundException if a class of the file cannot be found
+     */
+    static URL readURL(int index) throws IOException, ClassNotFoundException {
+        try(ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(
+                new FileInputStream(URL_PATH.concat(Integer.toString(index)))))) {
+            return (URL)in.readObject();
+        }
+    }
+
+
+
+
+    /**
+     * Saves a snapshot of the URL objects, the term dictionary and the IDF table in a single file, see CorpusSnapshot
+     * @param urlArr the URL objects to store
+     */
+    public static void saveSnapshot(URL [] urlArr){
+        try {
+            CorpusSnapshot.write(Paths.get(SNAPSHOT_PATH), urlArr);
+        } catch(IOException ex) {
+            ex.printStackTrace();
+        }
     }
 
 
 
 
     /**
-     * Save the current IDF's HashMap
+     * Save the current IDF's table, indexed by term ID
      */
     public static void saveIDF(){
-        Map<String, Integer> map = IDF.getMap();
+        int [] appearances = new int[TermDictionary.size()];
+        int urlCount = IDF.copyTo(appearances);
 
         try{
             FileOutputStream file = new FileOutputStream(IDF_PATH);
             ObjectOutputStream out = new ObjectOutputStream(file);
 
-            out.writeObject(map);
+            out.writeInt(urlCount);
+            out.writeObject(appearances);
 
             out.close();
             file.close();
@@ -101,17 +209,15 @@ public class SaveLoad {
 
 
     /**
-     * Loads the last IDF HashMap that was saved
-     * @return The HashMap that is loaded from the IDF folder
+     * Loads the last IDF table that was saved into the IDF class
      */
-    public static Map<String, Integer> loadIDF(){
-        Map<String, Integer> tempMap = null;
-
+    public static void loadIDF(){
         try{
             FileInputStream file = new FileInputStream(IDF_PATH);
             ObjectInputStream in = new ObjectInputStream(file);
 
-            tempMap = (Map<String, Integer>)in.readObject();
+            int urlCount = in.readInt();
+            IDF.load(urlCount, (int [])in.readObject());
 
             in.close();
             file.close();
@@ -121,6 +227,111 @@ public class SaveLoad {
         } catch(ClassNotFoundException ex) {
             ex.printStackTrace();
         }
-        return tempMap;
     }
-}
\ No newline at end of file
+
+
+
+
+    /**
+     * Save the current term dictionary. Words are written in sorted order as UTF-8, each one front coded against the
+     * word before it: the length of the shared prefix, the remaining suffix, and the word's ID
+     */
+    public static void saveDictionary(){
+        String [] words = TermDictionary.toArray();
+        Integer [] order = new Integer[words.length];
+        for(int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (i0, i1) -> words[i0].compareTo(words[i1]));
+
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(DICTIONARY_PATH)))) {
+            out.writeInt(DICTIONARY_MAGIC);
+            out.writeInt(words.length);
+
+            byte [] previous = new byte[0];
+            for(Integer id : order){
+                byte [] word = words[id].getBytes(StandardCharsets.UTF_8);
+                int shared = 0, limit = Math.min(previous.length, word.length);
+                while(shared < limit && previous[shared] == word[shared]) shared++;
+
+                writeVarInt(out, shared);
+                writeVarInt(out, word.length - shared);
+                out.write(word, shared, word.length - shared);
+                writeVarInt(out, id);
+                previous = word;
+            }
+
+        } catch(IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+
+
+
+    /**
+     * Loads the last term dictionary that was saved
+     * @return The words of the dictionary in ID order, empty if none could be loaded or the file is damaged
+     */
+    public static String [] loadDictionary(){
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(DICTIONARY_PATH)))) {
+            if(in.readInt() != DICTIONARY_MAGIC) throw new IOException("Not a term dictionary: " + DICTIONARY_PATH);
+
+            int wordCount = in.readInt();
+            if(wordCount < 0) throw new IOException("Corrupt term dictionary: " + DICTIONARY_PATH);
+            String [] words = new String[wordCount];
+            byte [] word = new byte[64];
+            for(int i = 0; i < words.length; i++){
+                int shared = readVarInt(in);
+                int length = shared + readVarInt(in);
+                if(shared < 0 || length < shared) throw new IOException("Corrupt term dictionary: " + DICTIONARY_PATH);
+                if(length > word.length) word = Arrays.copyOf(word, Math.max(length, word.length * 2));
+                in.readFully(word, shared, length - shared);
+                int id = readVarInt(in);
+                if(id < 0 || id >= words.length || words[id] != null)
+                    throw new IOException("Corrupt term dictionary: " + DICTIONARY_PATH);
+                words[id] = new String(word, 0, length, StandardCharsets.UTF_8);
+            }
+            return words;
+        } catch(IOException ex) {
+            // A partly read dictionary would leave IDs without words
+            ex.printStackTrace();
+            return new String[0];
+        }
+    }
+
+
+
+
+    /**
+     * Write a non-negative int in 7-bit groups, low group first, so small values take a single byte
+     * @param out stream written to
+     * @param value non-negative value
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while((value & ~0x7F) != 0){
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+
+
+
+    /**
+     * Read an int written by writeVarInt
+     * @param in stream read from
+     * @return the value read
+     * @throws IOException if the stream cannot be read
+     */
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for(int shift = 0; ; shift += 7){
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0) return value;
+        }
+    }
+}
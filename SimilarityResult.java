@@ -0,0 +1,54 @@
+/**
+ * A web page and its similarity to a query
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+public class SimilarityResult {
+    private final URL url;          // Matched web page
+    private final double score;     // Similarity value between the query and the web page
+
+
+
+
+    /**
+     * Construct a result
+     * @param url matched web page
+     * @param score similarity value between the query and the web page
+     */
+    public SimilarityResult(URL url, double score){
+        this.url = url;
+        this.score = score;
+    }
+
+
+
+
+    /**
+     * Retrieve the matched web page
+     * @return the matched web page
+     */
+    public URL getUrl(){ return url; }
+
+
+
+
+    /**
+     * Retrieve the similarity value
+     * @return similarity value between the query and the web page
+     */
+    public double getScore(){ return score; }
+
+
+
+
+    /**
+     * Convert the result into a String
+     * @return String representation of the result
+     */
+    public String toString(){
+        return url.getUrl() + " " + score;
+    }
+}
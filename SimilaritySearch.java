@@ -0,0 +1,105 @@
+/**
+ * Top-k similarity queries over a corpus split into partitions. Each partition has its own inverted index, a query
+ * runs every partition in parallel, and the partitions' heaps are merged into the k best web pages overall.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.util.Arrays;
+
+public class SimilaritySearch {
+    private static final int MIN_PARTITION_SIZE = 1024;    // Smaller corpora are not worth splitting
+
+    private final URL [] documents;                // URL database
+    private final InvertedIndex [] partitions;     // Index of each partition
+    private final int [] offsets;                  // Position of each partition's first document in the corpus
+
+
+
+
+    /**
+     * Construct a search over a corpus scoring by dot product, with one partition per core for large corpora
+     * @param documents URL database
+     */
+    public SimilaritySearch(URL [] documents){
+        this(documents, false);
+    }
+
+
+
+
+    /**
+     * Construct a search over a corpus, with one partition per core for large corpora
+     * @param documents URL database
+     * @param cosine whether to score by cosine similarity instead of dot product
+     */
+    public SimilaritySearch(URL [] documents, boolean cosine){
+        this(documents, Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                documents.length / MIN_PARTITION_SIZE)), cosine);
+    }
+
+
+
+
+    /**
+     * Construct a search over a corpus scoring by dot product
+     * @param documents URL database
+     * @param partitionCount number of partitions, must be positive
+     */
+    public SimilaritySearch(URL [] documents, int partitionCount){
+        this(documents, partitionCount, false);
+    }
+
+
+
+
+    /**
+     * Construct a search over a corpus
+     * @param documents URL database
+     * @param partitionCount number of partitions, must be positive
+     * @param cosine whether to score by cosine similarity instead of dot product
+     */
+    public SimilaritySearch(URL [] documents, int partitionCount, boolean cosine){
+        this.documents = documents;
+        partitions = new InvertedIndex[partitionCount];
+        offsets = new int[partitionCount];
+
+        // Partition indexes are independent, build them in parallel
+        Arrays.parallelSetAll(partitions, i -> {
+            offsets[i] = (int)((long)documents.length * i / partitionCount);
+            int end = (int)((long)documents.length * (i + 1) / partitionCount);
+            return new InvertedIndex(Arrays.copyOfRange(documents, offsets[i], end), cosine);
+        });
+    }
+
+
+
+
+    /**
+     * Determines the k most similar web pages to a query, pages whose similarity value is not positive are left out
+     * @param query TF-IDF vector of the query web page
+     * @param k number of web pages to return, must be positive
+     * @return up to k web pages and their similarity values, most similar first
+     */
+    public SimilarityResult [] topK(DocumentVector query, int k){
+        TopK [] partial = new TopK[partitions.length];
+        Arrays.parallelSetAll(partial, i -> partitions[i].query(query, k));
+
+        // Merge the partition heaps by corpus position
+        TopK merged = new TopK(k);
+        for(int i0 = 0; i0 < partial.length; i0++){
+            for(int i1 = 0; i1 < partial[i0].size(); i1++){
+                merged.offer(offsets[i0] + partial[i0].docAt(i1), partial[i0].scoreAt(i1));
+            }
+        }
+
+        int [] order = merged.sortedOrder();
+        SimilarityResult [] results = new SimilarityResult[order.length];
+        for(int i2 = 0; i2 < order.length; i2++){
+            results[i2] = new SimilarityResult(documents[merged.docAt(order[i2])], merged.scoreAt(order[i2]));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Global term dictionary, assigns every word a compact int ID the first time it is seen. Trees, vectors and the IDF
+ * table are keyed by these IDs, so the dictionary is saved and loaded along with them.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class TermDictionary {
+    static final int NULL_ID = -1;                  // ID of a word that is not in the dictionary
+    private static final int CHUNK_BITS = 12;       // Words per chunk, as a power of two
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAX_CHUNKS = 1 << 16;
+
+    private static ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();  // Word-ID pairs
+    private static AtomicReferenceArray<AtomicReferenceArray<String>> words =           // ID-word pairs, chunked
+            new AtomicReferenceArray<>(MAX_CHUNKS);
+    private static AtomicInteger nextId = new AtomicInteger();                          // Next unused ID
+
+
+
+
+    /**
+     * The dictionary becomes a copy of the last saved dictionary
+     */
+    public static void loadDictionary(){
+        load(SaveLoad.loadDictionary());
+    }
+
+
+
+
+    /**
+     * The dictionary becomes a copy of the parameter
+     * @param wordArray words in ID order, wordArray[i] is given ID i
+     */
+    public static void load(String [] wordArray){
+        ConcurrentHashMap<String, Integer> tempIds = new ConcurrentHashMap<>(wordArray.length * 2);
+        AtomicReferenceArray<AtomicReferenceArray<String>> tempWords = new AtomicReferenceArray<>(MAX_CHUNKS);
+
+        for(int i = 0; i < wordArray.length; i++){
+            tempIds.put(wordArray[i], i);
+            chunk(tempWords, i).set(i & (CHUNK_SIZE - 1), wordArray[i]);
+        }
+        ids = tempIds;
+        words = tempWords;
+        nextId = new AtomicInteger(wordArray.length);
+    }
+
+
+
+
+    /**
+     * Returns the ID of a word, assigning the next unused ID if the word has not been seen
+     * @param word word to intern
+     * @return the word's ID
+     */
+    public static int intern(String word){
+        Integer id = ids.get(word);
+        if(id != null) return id;
+
+        return ids.computeIfAbsent(word, w -> {
+            int newId = nextId.getAndIncrement();
+            chunk(words, newId).set(newId & (CHUNK_SIZE - 1), w);
+            return newId;
+        });
+    }
+
+
+
+
+    /**
+     * Returns the ID of a word without adding it to the dictionary
+     * @param word word to look up
+     * @return the word's ID, or NULL_ID if the word has not been seen
+     */
+    public static int lookup(String word){
+        Integer id = ids.get(word);
+        return (id == null) ? NULL_ID : id;
+    }
+
+
+
+
+    /**
+     * Returns the word with the given ID
+     * @param id ID assigned by intern
+     * @return the word, or null if no word has the ID
+     */
+    public static String word(int id){
+        if(id < 0 || id >= nextId.get()) return null;
+        AtomicReferenceArray<String> chunk = words.get(id >>> CHUNK_BITS);
+        return (chunk == null) ? null : chunk.get(id & (CHUNK_SIZE - 1));
+    }
+
+
+
+
+    /**
+     * Number of words in the dictionary
+     * @return number of words in the dictionary, every ID is less than this value
+     */
+    public static int size(){ return nextId.get(); }
+
+
+
+
+    /**
+     * Copy of the dictionary's words
+     * @return words in ID order, element i is the word with ID i
+     */
+    public static String [] toArray(){
+        String [] wordArray = new String[size()];
+        for(int i = 0; i < wordArray.length; i++) wordArray[i] = word(i);
+        return wordArray;
+    }
+
+
+
+
+    /**
+     * Retrieve the chunk holding an ID, creating it if needed
+     * @param chunks chunk table
+     * @param id ID whose chunk is returned
+     * @return the chunk holding the ID
+     */
+    private static AtomicReferenceArray<String> chunk(AtomicReferenceArray<AtomicReferenceArray<String>> chunks,
+                                                      int id){
+        int index = id >>> CHUNK_BITS;
+        AtomicReferenceArray<String> chunk = chunks.get(index);
+        if(chunk == null){
+            chunks.compareAndSet(index, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+}
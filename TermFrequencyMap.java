@@ -0,0 +1,203 @@
+/**
+ * Open addressing hash table of word-frequency pairs with primitive int counts. Words are looked up straight from a
+ * char array, so a String is only created the first time a word is seen.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+public class TermFrequencyMap {
+    private static final int INITIAL_CAPACITY = 256;    // Must be a power of two
+
+    private String [] terms;    // Word in each slot, null if the slot is empty
+    private int [] hashes;      // Hash of the word in each slot
+    private int [] counts;      // Frequency of the word in each slot
+    private int size;           // Number of words in the table
+
+
+
+
+    /**
+     * Visits every word-frequency pair in the table
+     */
+    public interface Visitor {
+        void visit(String term, int freq);
+    }
+
+
+
+
+    /**
+     * Construct an empty table
+     */
+    public TermFrequencyMap(){
+        terms = new String[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+
+
+
+    /**
+     * Increments the frequency of the word held in a region of a char array
+     * @param buffer array holding the word
+     * @param offset index of the word's first char
+     * @param length number of chars in the word
+     */
+    public void increment(char [] buffer, int offset, int length){
+        int hash = hash(buffer, offset, length);
+        int mask = terms.length - 1;
+        int slot = hash & mask;
+
+        // Linear probe until the word or an empty slot is found
+        while(terms[slot] != null){
+            if(hashes[slot] == hash && matches(terms[slot], buffer, offset, length)){
+                counts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        terms[slot] = new String(buffer, offset, length);
+        hashes[slot] = hash;
+        counts[slot] = 1;
+        if(++size * 2 > terms.length) rehash();
+    }
+
+
+
+
+    /**
+     * Returns the frequency of a word
+     * @param term word to look up
+     * @return the word's frequency, 0 if absent
+     */
+    public int get(String term){
+        int slot = find(term);
+        return (slot < 0) ? 0 : counts[slot];
+    }
+
+
+
+
+    /**
+     * Removes a word from the table
+     * @param term word to remove
+     */
+    public void remove(String term){
+        int slot = find(term);
+        if(slot < 0) return;
+        int mask = terms.length - 1;
+
+        // Shift later words of the probe sequence back, so no lookup passes over an empty slot
+        int next = (slot + 1) & mask;
+        while(terms[next] != null){
+            int home = hashes[next] & mask;
+            if(((next - home) & mask) >= ((next - slot) & mask)){
+                terms[slot] = terms[next];
+                hashes[slot] = hashes[next];
+                counts[slot] = counts[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        terms[slot] = null;
+        size--;
+    }
+
+
+
+
+    /**
+     * Number of words in the table
+     * @return number of words in the table
+     */
+    public int size(){ return size; }
+
+
+
+
+    /**
+     * Visits every word-frequency pair, in no particular order
+     * @param visitor receives each pair
+     */
+    public void forEach(Visitor visitor){
+        for(int i = 0; i < terms.length; i++){
+            if(terms[i] != null) visitor.visit(terms[i], counts[i]);
+        }
+    }
+
+
+
+
+    /**
+     * Determine the slot of a word
+     * @param term word to look up
+     * @return the word's slot, -1 if absent
+     */
+    private int find(String term){
+        int length = term.length();
+        int hash = 0;
+        for(int i = 0; i < length; i++) hash = 31 * hash + term.charAt(i);
+        hash ^= (hash >>> 16);
+
+        int mask = terms.length - 1;
+        for(int slot = hash & mask; terms[slot] != null; slot = (slot + 1) & mask){
+            if(hashes[slot] == hash && terms[slot].equals(term)) return slot;
+        }
+        return -1;
+    }
+
+
+
+
+    /**
+     * Doubles the capacity of the table
+     */
+    private void rehash(){
+        String [] oldTerms = terms;
+        int [] oldHashes = hashes;
+        int [] oldCounts = counts;
+        terms = new String[oldTerms.length * 2];
+        hashes = new int[oldTerms.length * 2];
+        counts = new int[oldTerms.length * 2];
+        int mask = terms.length - 1;
+
+        for(int i = 0; i < oldTerms.length; i++){
+            if(oldTerms[i] == null) continue;
+            int slot = oldHashes[i] & mask;
+            while(terms[slot] != null) slot = (slot + 1) & mask;
+            terms[slot] = oldTerms[i];
+            hashes[slot] = oldHashes[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+
+
+
+
+    /**
+     * Hash of a word held in a region of a char array, consistent with find
+     */
+    private static int hash(char [] buffer, int offset, int length){
+        int hash = 0;
+        for(int i = offset; i < offset + length; i++) hash = 31 * hash + buffer[i];
+        return hash ^ (hash >>> 16);
+    }
+
+
+
+
+    /**
+     * Whether a word equals the region of a char array
+     */
+    private static boolean matches(String term, char [] buffer, int offset, int length){
+        if(term.length() != length) return false;
+        for(int i = 0; i < length; i++){
+            if(term.charAt(i) != buffer[offset + i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Bounded min-heap keeping the k highest scoring documents offered to it. The root is the weakest document kept, so
+ * a new document only enters the heap if it beats the root.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+public class TopK {
+    private final int [] docs;          // Document index of each heap entry
+    private final double [] scores;     // Score of each heap entry
+    private int size;                   // Number of entries in the heap
+
+
+
+
+    /**
+     * Construct an empty heap
+     * @param k number of documents to keep, must be positive
+     */
+    public TopK(int k){
+        docs = new int[k];
+        scores = new double[k];
+        size = 0;
+    }
+
+
+
+
+    /**
+     * Offer a document to the heap, it is kept if the heap has room or it beats the weakest document kept
+     * @param doc document index
+     * @param score document's score
+     */
+    public void offer(int doc, double score){
+        if(size < docs.length) {
+            docs[size] = doc;
+            scores[size] = score;
+            siftUp(size++);
+        } else if(weaker(docs[0], scores[0], doc, score)) {
+            docs[0] = doc;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+
+
+
+    /**
+     * Whether the heap holds k documents
+     * @return true if the heap holds k documents
+     */
+    public boolean isFull(){ return size == docs.length; }
+
+
+
+
+    /**
+     * Score a document must beat to enter a full heap
+     * @return the weakest score kept
+     */
+    public double threshold(){ return scores[0]; }
+
+
+
+
+    /**
+     * Number of documents kept
+     * @return number of documents kept
+     */
+    public int size(){ return size; }
+
+
+
+
+    /**
+     * Document index of an entry
+     * @param index entry position, in heap order
+     * @return document index of the entry
+     */
+    public int docAt(int index){ return docs[index]; }
+
+
+
+
+    /**
+     * Score of an entry
+     * @param index entry position, in heap order
+     * @return score of the entry
+     */
+    public double scoreAt(int index){ return scores[index]; }
+
+
+
+
+    /**
+     * Entry positions ordered strongest first, equal scores are ordered by ascending document index
+     * @return entry positions to pass to docAt and scoreAt, strongest first
+     */
+    public int [] sortedOrder(){
+        int [] order = new int[size];
+        for(int i0 = 0; i0 < size; i0++){
+            // Insertion sort, k is small
+            int i1 = i0;
+            while(i1 > 0 && weaker(docs[order[i1 - 1]], scores[order[i1 - 1]], docs[i0], scores[i0])){
+                order[i1] = order[i1 - 1];
+                i1--;
+            }
+            order[i1] = i0;
+        }
+        return order;
+    }
+
+
+
+
+    /**
+     * Whether document 1 ranks below document 2, equal scores rank the lower document index higher
+     */
+    private static boolean weaker(int doc1, double score1, int doc2, double score2){
+        return score1 < score2 || (score1 == score2 && doc1 > doc2);
+    }
+
+
+
+
+    /**
+     * Move an entry up until its parent is weaker
+     */
+    private void siftUp(int index){
+        while(index > 0){
+            int parent = (index - 1) >>> 1;
+            if(!weaker(docs[index], scores[index], docs[parent], scores[parent])) return;
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+
+
+
+    /**
+     * Move an entry down until both children are stronger
+     */
+    private void siftDown(int index){
+        while(true){
+            int child = 2 * index + 1;
+            if(child >= size) return;
+            if(child + 1 < size && weaker(docs[child + 1], scores[child + 1], docs[child], scores[child])) child++;
+            if(!weaker(docs[child], scores[child], docs[index], scores[index])) return;
+            swap(index, child);
+            index = child;
+        }
+    }
+
+
+
+
+    /**
+     * Swap two entries
+     */
+    private void swap(int index1, int index2){
+        int tempDoc = docs[index1];
+        double tempScore = scores[index1];
+        docs[index1] = docs[index2];
+        scores[index1] = scores[index2];
+        docs[index2] = tempDoc;
+        scores[index2] = tempScore;
+    }
+}
@@ -9,20 +9,31 @@
  */
 
 import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 public class URL implements Serializable, Comparable<URL> {
+    private static final long serialVersionUID = 1L;            // Serialized form, changed only on purpose
+
+    private static final String [] STOP_WORDS = {                // Words that offer no contextual clues
+            "the", "", "to", "of", "and", "a", "in", "is", "it", "you",
+            "that", "an", "was", "for", "on", "are", "with", "as", "his", "i",
+            "they", "be", "at", "have", "this", "from", "or", "had", "by", "but",
+            "some", "what", "there", "we", "can", "were", "all", "your", "when", "use",
+            "how"
+    };
 
-    private static final String URL_COUNT_KEY = "URL_COUNT";    // Unique key, maps to the number of URLS
     private String url;                                         // The web page's URL
     private BTree bTree;                                        // Hash Table of the Word-Frequency pairs
     private Integer label;                                      // Used for clustering in DBSCAN
+    private transient volatile DocumentVector vector;           // TF-IDF weights of the tree, built on demand
+    private transient volatile Corpus corpus;                   // Corpus that may release the tree, or null
+    private transient int corpusIndex;                          // Position of this URL in its corpus
 
 
 
@@ -32,55 +43,208 @@ public class URL implements Serializable, Comparable<URL> {
      * @param url A URL of a web page
      */
     public URL(String url) {
+        this(url, fetchWords(url));
+    }
+
+
+
+
+    /**
+     * Constructor, given a URL and the paragraph text already retrieved from it, a custom BTree will be created
+     * @param url A URL of a web page
+     * @param paragraphText The paragraph element's from the web page, in string form
+     */
+    public URL(String url, String paragraphText) {
+        this(url, countWords(paragraphText));
+    }
+
+
+
+
+    /**
+     * Constructor, given a URL and the filtered word-frequency pairs of its web page, a custom BTree will be created
+     * @param url A URL of a web page
+     * @param wordFreq Filtered word-frequency pairs, see countWords
+     */
+    public URL(String url, TermFrequencyMap wordFreq) {
         this.url = url;
-        String paragraphText = "";
-        bTree = new BTree(url);
+
+        buildTree(wordFreq);
+    }
+
+
+
+
+    /**
+     * Constructor, given a URL and a tree already built from its web page. The IDF table is left unchanged, the page
+     * is expected to be counted in it already
+     * @param url A URL of a web page
+     * @param bTree Word-frequency pairs of the web page
+     */
+    public URL(String url, BTree bTree) {
+        this.url = url;
+        this.bTree = bTree;
+    }
+
+
+
+
+    /**
+     * Fetch a web page to query the corpus with. The page gets a tree like any other, but is not added to the IDF
+     * table, so querying leaves the corpus weights unchanged
+     * @param url A URL of a web page
+     * @return the query web page
+     */
+    public static URL queryPage(String url) {
+        return queryPage(url, fetchWords(url));
+    }
+
+
+
+
+    /**
+     * Build a web page to query the corpus with from its filtered word-frequency pairs, see queryPage(String)
+     * @param url A URL of a web page
+     * @param wordFreq Filtered word-frequency pairs, see countWords
+     * @return the query web page
+     */
+    public static URL queryPage(String url, TermFrequencyMap wordFreq) {
+        return uncountedPage(url, wordFreq, false);
+    }
+
+
+
+
+    /**
+     * Build a web page without adding it to the IDF table, for callers that keep the table up to date themselves,
+     * see Corpus.put
+     * @param url A URL of a web page
+     * @param wordFreq Filtered word-frequency pairs, see countWords
+     * @return the web page, every word interned in the TermDictionary
+     */
+    public static URL page(String url, TermFrequencyMap wordFreq) {
+        return uncountedPage(url, wordFreq, true);
+    }
+
 
 
-        // Retrieves all the paragraph elements from the url and stores them in the
+
+    /**
+     * Build a web page without adding it to the IDF table
+     * @param url A URL of a web page
+     * @param wordFreq Filtered word-frequency pairs, see countWords
+     * @param intern whether unseen words are added to the TermDictionary, or left out
+     * @return the web page
+     */
+    private static URL uncountedPage(String url, TermFrequencyMap wordFreq, boolean intern) {
+        int [] termIds = new int[wordFreq.size()];
+        int [] freqs = new int[wordFreq.size()];
+        int [] count = {0};
+
+        // Words the corpus has never seen carry no weight in a query, and are left out
+        wordFreq.forEach((term, freq) -> {
+            int termId = intern ? Key.termId(term) : TermDictionary.lookup(term);
+            if(termId == TermDictionary.NULL_ID) return;
+            termIds[count[0]] = termId;
+            freqs[count[0]++] = freq;
+        });
+        return new URL(url, BTree.bulkLoad(url, termIds, freqs, count[0]));
+    }
+
+
+
+
+    /**
+     * Connects to a web page and counts the words of its paragraph elements, on failure the stack trace is printed and
+     * no words are returned
+     * @param url A URL of a web page
+     * @return Filtered word-frequency pairs
+     */
+    public static TermFrequencyMap fetchWords(String url) {
         try {
-            Document doc = Jsoup.connect(url).get();
-            Elements paragraphs = doc.getElementsByTag("p");
-            for (Element paragraph1 : paragraphs) { paragraphText = paragraphText.concat(paragraph1.text()); }
+            return countWords(Jsoup.connect(url).get().getElementsByTag("p"));
         } catch (IOException e) { e.printStackTrace(); }
-
-        createTree(paragraphText);
-        IDF.incrementIDF(URL_COUNT_KEY);
+        return new TermFrequencyMap();
     }
 
 
 
 
     /**
-     * Using the web page's text in String form, creates a HashMap of the words and frequency of appearance's, removing
-     * word's that offer little contextual clues. The HashMap is than transposed into the custom BTree
+     * Using the web page's text in String form, counts the words and frequency of appearance's, removing word's that
+     * offer little contextual clues. The word-frequency pairs are than transposed into the custom BTree, adding to the
+     * frequencies of words the tree already holds
      * @param str The paragraph element's from a web page, in string form.
+     * @throws IllegalStateException if the URL is held by a corpus, use Corpus.put instead
      */
     public void createTree(String str){
-        String [] strArr = str.split("\\P{L}+",2);   // Split the head word from the rest in a string
-        String tempStr;                                          // Stores the lower case head word
-        Map<String, Integer> map = new HashMap<String, Integer>();             // Key-value pair of a word and the word frequency
-        Key tempKey;                                             // Key inserted in tree, and updates IDF HashMap
-
-        // Create a temporary Hash Map of the words and the frequency of their occurrences on a web page
-        while(strArr.length > 1){
-            tempStr = strArr[0].toLowerCase();
-            Integer freq = map.get(tempStr);
-            map.put(tempStr, (freq == null) ? 1 : freq + 1);
-            strArr = strArr[1].split("\\P{L}+",2);
-        }
-        tempStr = strArr[0].toLowerCase();
-        Integer freq = map.get(tempStr);
-        map.put(tempStr,(freq == null) ? 1 : freq + 1);
+        buildTree(countWords(str));
+    }
+
+
 
-        Map<String, Integer> filteredMap = filterWords(map);
 
-        // From the given HashMap add them to the custom B-Tree
-        for(Map.Entry<String, Integer> e : filteredMap.entrySet()) {
-            tempKey = new Key(e.getKey(),e.getValue());
-            bTree.keyInsert(tempKey);
-            IDF.incrementIDF(tempKey.getWord());
+    /**
+     * Using the web page's text in String form, counts the words and frequency of appearance's, removing word's that
+     * offer little contextual clues
+     * @param str The paragraph element's from a web page, in string form.
+     * @return Filtered word-frequency pairs
+     */
+    public static TermFrequencyMap countWords(CharSequence str){
+        return filterWords(Tokenizer.countWords(str));
+    }
+
+
+
+
+    /**
+     * Using a web page's paragraph elements, counts the words and frequency of appearance's, removing word's that offer
+     * little contextual clues
+     * @param paragraphs The paragraph element's from a web page
+     * @return Filtered word-frequency pairs
+     */
+    public static TermFrequencyMap countWords(Elements paragraphs){
+        return filterWords(Tokenizer.countWords(paragraphs));
+    }
+
+
+
+
+    /**
+     * Transposes filtered word-frequency pairs into the custom B-Tree, and merges the page into the IDF table. The
+     * first tree is bulk loaded from the pairs and the page is counted. Later pairs are merged with the tree's keys
+     * into a new bulk loaded tree, and only the words new to the page are counted
+     * @param wordFreq Filtered word-frequency pairs
+     */
+    private void buildTree(TermFrequencyMap wordFreq){
+        int [] termIds = new int[wordFreq.size()];
+        int [] freqs = new int[wordFreq.size()];
+        int [] count = {0};
+
+        // Intern the words of the word-frequency pairs
+        wordFreq.forEach((term, freq) -> {
+            termIds[count[0]] = Key.termId(term);
+            freqs[count[0]++] = freq;
+        });
+
+        if(corpus != null) throw new IllegalStateException("Use Corpus.put to change a page held by a corpus");
+        if(bTree == null) {
+            // Bulk loading merges repeated term IDs, update IDF table once per distinct term
+            bTree = BTree.bulkLoad(url, termIds, freqs, count[0]);
+            IDF.addDocument(getTermIds());
+        } else {
+            // The page is counted already, bulk loading sums the frequencies of words in both
+            int [] oldTermIds = getTermIds();
+            int oldCount = bTree.getTotalKeyCount();
+            int [] mergedIds = new int[oldCount + count[0]];
+            int [] mergedFreqs = new int[mergedIds.length];
+            int copied = bTree.copyKeys(mergedIds, mergedFreqs);
+            System.arraycopy(termIds, 0, mergedIds, copied, count[0]);
+            System.arraycopy(freqs, 0, mergedFreqs, copied, count[0]);
+            bTree = BTree.bulkLoad(url, mergedIds, mergedFreqs, copied + count[0]);
+            IDF.updateDocument(oldTermIds, getTermIds());
         }
+        vector = null;
     }
 
 
@@ -90,7 +254,61 @@ public class URL implements Serializable, Comparable<URL> {
      * Retrieve tree associated with this URL
      * @return MyHashTable object for this URL
      */
-    public BTree getTree(){ return bTree; }
+    public BTree getTree(){
+        Corpus tempCorpus = corpus;
+        return (tempCorpus == null) ? bTree : tempCorpus.getTree(this, corpusIndex);
+    }
+
+
+
+
+    /**
+     * Retrieve the distinct words of this URL, the words it is counted with in the IDF table
+     * @return term IDs of the tree's keys, ascending
+     */
+    public int [] getTermIds(){
+        BTree tempTree = getTree();
+        int [] termIds = new int[tempTree.getTotalKeyCount()];
+        int keyCount = tempTree.copyKeys(termIds, new int[termIds.length]);
+
+        // Trees saved while words were truncated may repeat an ID
+        int count = 0;
+        for(int i = 0; i < keyCount; i++){
+            if(count == 0 || termIds[count - 1] != termIds[i]) termIds[count++] = termIds[i];
+        }
+        return (count == termIds.length) ? termIds : Arrays.copyOf(termIds, count);
+    }
+
+
+
+
+    /**
+     * Hand the tree of this URL to a corpus, which may release it and read it back when needed
+     * @param tempCorpus corpus holding this URL
+     * @param tempIndex position of this URL in the corpus
+     */
+    void attach(Corpus tempCorpus, int tempIndex){
+        corpusIndex = tempIndex;
+        corpus = tempCorpus;
+    }
+
+
+
+
+    /**
+     * Retrieve the tree without reading it back if it was released
+     * @return the tree, or null if it was released
+     */
+    BTree residentTree(){ return bTree; }
+
+
+
+
+    /**
+     * Set or release the tree, used by the corpus holding this URL
+     * @param tempTree the tree, or null to release it
+     */
+    void setResidentTree(BTree tempTree){ bTree = tempTree; }
 
 
 
@@ -128,47 +346,7 @@ public class URL implements Serializable, Comparable<URL> {
      * @return returns the filtered hashMap
      */
     public static HashMap<String, Integer> filterWords(Map<String, Integer> hashMap){
-        hashMap.remove("the");
-        hashMap.remove("");
-        hashMap.remove("to");
-        hashMap.remove("of");
-        hashMap.remove("and");
-        hashMap.remove("a");
-        hashMap.remove("in");
-        hashMap.remove("is");
-        hashMap.remove("it");
-        hashMap.remove("you");
-        hashMap.remove("that");
-        hashMap.remove("an");
-        hashMap.remove("was");
-        hashMap.remove("for");
-        hashMap.remove("on");
-        hashMap.remove("are");
-        hashMap.remove("with");
-        hashMap.remove("as");
-        hashMap.remove("his");
-        hashMap.remove("i");
-        hashMap.remove("they");
-        hashMap.remove("be");
-        hashMap.remove("at");
-        hashMap.remove("have");
-        hashMap.remove("this");
-        hashMap.remove("from");
-        hashMap.remove("or");
-        hashMap.remove("had");
-        hashMap.remove("by");
-        hashMap.remove("but");
-        hashMap.remove("some");
-        hashMap.remove("what");
-        hashMap.remove("there");
-        hashMap.remove("we");
-        hashMap.remove("can");
-        hashMap.remove("were");
-        hashMap.remove("all");
-        hashMap.remove("your");
-        hashMap.remove("when");
-        hashMap.remove("use");
-        hashMap.remove("how");
+        for(String word : STOP_WORDS) { hashMap.remove(word); }
 
         HashMap<String, Integer> copy = new HashMap<String, Integer>(hashMap);
         return copy;
@@ -177,6 +355,19 @@ public class URL implements Serializable, Comparable<URL> {
 
 
 
+    /**
+     * Removes 40 of the most common words that offer no contextual clues
+     * @param wordFreq the non-filtered word-frequency pairs, filtered in place
+     * @return returns the filtered word-frequency pairs
+     */
+    public static TermFrequencyMap filterWords(TermFrequencyMap wordFreq){
+        for(String word : STOP_WORDS) { wordFreq.remove(word); }
+        return wordFreq;
+    }
+
+
+
+
     /**
      * Generate a numerical representation of the relationship of two web pages, the larger the long the more related
      * two web pages are.
@@ -185,57 +376,50 @@ public class URL implements Serializable, Comparable<URL> {
      * @return Numerical representation of web page's relation
      */
     public static double generateURLSimilarityVal(URL url1, URL url2){
-        if(url1.bTree.getTotalKeyCount() < url2.bTree.getTotalKeyCount())
-            return compareTree(url1.bTree.getRoot(), url1.bTree, url2.bTree);
-
-        return compareTree(url2.bTree.getRoot(), url2.bTree, url1.bTree);
+        return url1.getVector().dot(url2.getVector());
     }
 
 
 
 
     /**
-     * Recursively determine tf-idf of two trees
-     * @param position address of node
-     * @param smallerTree BTree total number of key's is <= largerTree
-     * @param largerTree BTree total number of key's is >= smallerTree
-     * @return Numerical representation of BTree's relation
+     * Cosine similarity of two web pages, their TF-IDF vectors' dot product divided by both norms, so long pages do
+     * not outweigh short ones
+     * @param url1 Web page compared
+     * @param url2 Web page compared
+     * @return similarity between 0 and 1
      */
-    public static double compareTree(int position, BTree smallerTree, BTree largerTree){
-        BTree_Node node = smallerTree.getNode(position);
-        double urlCount = IDF.getURLCount().doubleValue();
-        double tfSmall, tfLarge, idf;
-        double returnVal = 0;
-        int keyCount = node.getKeyCount();
-        Key [] keyArray;
+    public static double cosineSimilarity(URL url1, URL url2){
+        return url1.getVector().cosine(url2.getVector());
+    }
 
-        // Base Case: returns the tf-idf of a leaf node
-        if(node.getLeafStatus() == 1){
-            keyArray = node.getKeys();
-            for(int i0 = 0; i0 < keyCount; i0++){
-                tfSmall = keyArray[i0].getFreq() / (double)smallerTree.getTotalWordCount();
-                tfLarge = largerTree.search(keyArray[i0]) / (double)largerTree.getTotalWordCount();
-                idf = urlCount / IDF.wordAppearances(keyArray[i0].getWord());
-                idf = Math.log(idf);
-                returnVal += tfSmall * tfLarge * idf;
-            }
-            return returnVal;
-        }
 
-        // Recursive Case: returns the summation of the tf-idf of all nodes
-        for(int i1 = 0; i1 < keyCount; i1++){
-            returnVal += compareTree(node.getChildren()[i1],smallerTree, largerTree);
-        }
-        //
-        keyArray = node.getKeys();
-        for(int i2 = 0; i2 < keyCount; i2++){
-            tfSmall = keyArray[i2].getFreq() / (double)smallerTree.getTotalWordCount();
-            tfLarge = largerTree.search(keyArray[i2]) / (double)largerTree.getTotalWordCount();
-            idf = urlCount / IDF.wordAppearances(keyArray[i2].getWord());
-            idf = Math.log(idf);
-            returnVal += tfSmall * tfLarge * idf;
+
+
+    /**
+     * Retrieve the TF-IDF vector of this URL, recomputed from the tree if the IDF table changed since it was built
+     * @return DocumentVector object for this URL
+     */
+    public DocumentVector getVector(){
+        DocumentVector tempVector = vector;
+        if(tempVector == null || tempVector.getIdfVersion() != IDF.getVersion()) {
+            tempVector = DocumentVector.of(getTree());
+            vector = tempVector;
         }
-        return returnVal;
+        return tempVector;
+    }
+
+
+
+
+    /**
+     * Serializes the URL, reading a released tree back first
+     * @param out stream the URL is written to
+     * @throws IOException if the URL cannot be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        bTree = getTree();
+        out.defaultWriteObject();
     }
 
 
@@ -0,0 +1,31 @@
+/**
+ * Creates executors that run each task on its own virtual thread, falling back to a cached pool of platform threads
+ * when the running JDK does not provide virtual threads
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class VirtualThreads {
+
+
+
+
+    /**
+     * Construct an executor that starts a new virtual thread for every task
+     * @return a thread-per-task executor, backed by platform threads if virtual threads are unavailable
+     */
+    public static ExecutorService newExecutor(){
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService)factory.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
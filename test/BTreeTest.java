@@ -0,0 +1,71 @@
+/**
+ * Checks that B-Trees keep their keys once mapped, including two trees of the same web page mapped one after the
+ * other, as when a page is crawled again while its old tree is still loaded, and that the file of a superseded tree
+ * is deleted without disturbing the trees kept
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Set;
+
+public class BTreeTest {
+    private static final String PAGE = "https://en.wikipedia.org/wiki/Brown_bear";      // Name of both trees
+
+
+
+
+    public static void main(String [] args) throws Exception {
+        BTree first = tree(new int[] {3, 8, 21}, new int[] {2, 5, 1});
+        first.map();
+        check(first.search(first.getRoot(), 8) == 5, "mapped tree finds its key");
+
+        // Same web page crawled again, with other words
+        BTree second = tree(new int[] {4, 8}, new int[] {7, 9});
+        second.map();
+        check(second.search(second.getRoot(), 8) == 9, "second tree finds its key");
+        check(first.search(first.getRoot(), 8) == 5, "first tree keeps its key after the second is mapped");
+        check(first.search(first.getRoot(), 21) == 1, "first tree keeps every key");
+        check(first.search(first.getRoot(), 4) == 0, "first tree does not see the second's keys");
+
+        // Inserting grows the mapped file without touching the other tree
+        for(int i = 100; i < 2000; i++) first.keyInsert(new Key(i, i));
+        check(first.search(first.getRoot(), 1999) == 1999, "grown tree finds an inserted key");
+        check(second.search(second.getRoot(), 4) == 7, "second tree unaffected by the first growing");
+
+        // The first tree is superseded by the second
+        BTree.deleteFilesExcept(Set.of(second.getFilename()));
+        check(!Files.exists(Paths.get(BTree.TREE_PATH, first.getFilename())), "superseded tree's file deleted");
+        check(Files.exists(Paths.get(BTree.TREE_PATH, second.getFilename())), "kept tree's file left alone");
+        check(first.search(first.getRoot(), 8) == 5, "superseded tree still reads its mapping");
+        System.out.println("BTreeTest passed");
+    }
+
+
+
+
+    /**
+     * Bulk load a tree of PAGE
+     * @param termIds term ID of each key
+     * @param freqs frequency of each key
+     * @return the tree, not yet mapped
+     */
+    private static BTree tree(int [] termIds, int [] freqs){
+        return BTree.bulkLoad(PAGE, termIds, freqs, termIds.length);
+    }
+
+
+
+
+    /**
+     * Fail the test unless a condition holds
+     * @param condition condition checked
+     * @param message what the condition means
+     */
+    private static void check(boolean condition, String message){
+        if(!condition) throw new AssertionError(message);
+    }
+}
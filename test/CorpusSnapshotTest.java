@@ -0,0 +1,64 @@
+/**
+ * Checks that a snapshot written from a crawl result with a dropped page, a null slot, holds the other pages in crawl
+ * order and reads back with the same words and IDF table. A write that fails leaves no temp file behind
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+public class CorpusSnapshotTest {
+    public static void main(String [] args) throws Exception {
+        URL [] crawled = {
+            new URL("https://en.wikipedia.org/wiki/Brown_bear", "grizzly salmon salmon river"),
+            null,
+            new URL("https://en.wikipedia.org/wiki/Otter", "river otter salmon")
+        };
+        Path directory = Files.createTempDirectory("corpus");
+        Path path = directory.resolve("corpus.snapshot");
+        try {
+            CorpusSnapshot.write(path, crawled);
+            IDF.clear();
+            URL [] loaded = CorpusSnapshot.load(path);
+
+            check(loaded.length == 2, "dropped page left out");
+            check(loaded[0].getUrl().equals(crawled[0].getUrl()), "first page kept in place");
+            check(loaded[1].getUrl().equals(crawled[2].getUrl()), "page after the gap follows the first");
+            check(loaded[0].getTree().search(loaded[0].getTree().getRoot(), TermDictionary.lookup("salmon")) == 2,
+                  "frequencies read back");
+            check(IDF.getURLCount() == 2, "IDF table read back");
+            check(IDF.wordAppearances("river") == 2, "word appearances read back");
+
+            // A page without a tree fails the write partway through
+            URL treeless = new URL("https://en.wikipedia.org/wiki/Fox", (BTree)null);
+            try {
+                CorpusSnapshot.write(path, new URL[] {crawled[0], treeless});
+                check(false, "write of a page without a tree fails");
+            } catch(RuntimeException ex) { }
+            try(Stream<Path> files = Files.list(directory)) {
+                check(files.count() == 1, "failed write leaves only the old snapshot");
+            }
+            check(CorpusSnapshot.load(path).length == 2, "old snapshot kept");
+        } finally {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(directory);
+        }
+        System.out.println("CorpusSnapshotTest passed");
+    }
+
+
+
+
+    /**
+     * Fail the test unless a condition holds
+     * @param condition condition checked
+     * @param message what the condition means
+     */
+    private static void check(boolean condition, String message){
+        if(!condition) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Checks that a corpus loaded from page files keeps its IDF table in step with its documents across remove and put,
+ * and once a refresh reloads the pages those edits dropped. Pages dropped from a corpus whose trees were released,
+ * by an edit or a refresh, keep their own words
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+
+public class CorpusTest {
+    private static final int PAGES = 10;        // Page files saved
+
+
+
+
+    public static void main(String [] args) throws Exception {
+        // Every page shares one word, and has one of its own
+        IDF.clear();
+        for(int i = 0; i < PAGES; i++){
+            SaveLoad.saveURL(new URL("https://example.org/wiki/" + i, "forest page" + (char)('a' + i)), i);
+        }
+        SaveLoad.saveDictionary();
+        SaveLoad.saveIDF();
+
+        Corpus corpus = new Corpus(PAGES);
+        check(corpus.getDocuments().length == PAGES, "every page file loaded");
+        check(IDF.getURLCount() == PAGES, "IDF counts every page");
+
+        check(corpus.remove("https://example.org/wiki/3"), "page removed");
+        check(IDF.getURLCount() == PAGES - 1, "IDF uncounts the removed page");
+        check(IDF.wordAppearances("forest") == PAGES - 1, "IDF uncounts the removed page's words");
+
+        corpus.put("https://example.org/wiki/new", URL.countWords("forest meadow"));
+        check(IDF.getURLCount() == PAGES, "IDF counts the put page");
+
+        // The removed page's file is read back, the put page has no file
+        check(corpus.refresh(), "refresh reloads the removed page");
+        check(corpus.getDocuments().length == PAGES, "corpus holds the page files again");
+        check(IDF.getURLCount() == corpus.getDocuments().length, "IDF counts the documents refresh installed");
+        check(IDF.wordAppearances("forest") == PAGES, "IDF counts the reloaded page's words");
+        check(IDF.wordAppearances("paged") == 1, "IDF counts the reloaded page's own word");
+        check(IDF.wordAppearances("meadow") == null, "IDF drops the put page's words");
+
+        droppedPages();
+        refreshedPages();
+        System.out.println("CorpusTest passed");
+    }
+
+
+
+
+    /**
+     * Remove one page and replace another in a corpus that releases every tree it is not using, then check both
+     * dropped pages still read their own words instead of the pages now at their positions
+     */
+    private static void droppedPages(){
+        Corpus corpus = new Corpus(PAGES, 1);
+        URL removed = corpus.getDocuments()[2];
+        URL replaced = corpus.getDocuments()[4];
+        evict(corpus);
+        check(removed.residentTree() == null && replaced.residentTree() == null, "trees released");
+
+        check(corpus.remove(removed.getUrl()), "page removed");
+        corpus.put(replaced.getUrl(), URL.countWords("forest meadow"));
+
+        // Reading a dropped page must not hand its tree back to the corpus to release
+        removed.getTree();
+        replaced.getTree();
+        evict(corpus);
+        check(hasWord(removed, "pagec") && !hasWord(removed, "paged"), "removed page keeps its words");
+        check(hasWord(replaced, "pagee") && !hasWord(replaced, "meadow"), "replaced page keeps its words");
+    }
+
+
+
+
+    /**
+     * Refresh a corpus that releases every tree it is not using after one page file is rewritten and another deleted,
+     * then check the page the rewritten file replaced reads its own file instead of the page now at its position
+     */
+    private static void refreshedPages() throws Exception {
+        Corpus corpus = new Corpus(PAGES, 1);
+        URL rewritten = corpus.getDocuments()[5];
+        evict(corpus);
+
+        SaveLoad.saveURL(new URL(rewritten.getUrl(), "forest pagef otter"), 5);
+        Files.setLastModifiedTime(Paths.get(SaveLoad.URL_PATH, "5"),
+                                  FileTime.fromMillis(System.currentTimeMillis() + 2000));
+        SaveLoad.deleteURL(3);
+        check(corpus.refresh(), "refresh reads the changed files");
+        check(corpus.getDocuments().length == PAGES - 1, "deleted page left out");
+        evict(corpus);
+        check(hasWord(rewritten, "pagef") && !hasWord(rewritten, "pageg"), "replaced page keeps its own file");
+    }
+
+
+
+
+    /**
+     * Read every document's tree, so a corpus with a budget of one byte releases all but the last
+     * @param corpus corpus read
+     */
+    private static void evict(Corpus corpus){
+        for(URL url : corpus.getDocuments()) url.getTree();
+    }
+
+
+
+
+    /**
+     * Whether a page's tree holds a word
+     * @param url the page
+     * @param word word looked for
+     * @return true if the word has a frequency in the page's tree
+     */
+    private static boolean hasWord(URL url, String word){
+        BTree tree = url.getTree();
+        return tree.search(tree.getRoot(), TermDictionary.lookup(word)) > 0;
+    }
+
+
+
+
+    /**
+     * Fail the test unless a condition holds
+     * @param condition condition checked
+     * @param message what the condition means
+     */
+    private static void check(boolean condition, String message){
+        if(!condition) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * Runs the crawl pipeline against a fake Fetcher: results keep the crawl order, a page that fails to fetch comes back
+ * as a null slot, and no host ever sees more simultaneous fetches than its limit. The default Jsoup fetcher is then run
+ * over real sockets against a local HttpServer serving canned Wikipedia pages under two host names
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CrawlerTest {
+    private static final int HOST_LIMIT = 2;        // Simultaneous fetches allowed per host
+    private static final int PAGE_COUNT = 40;       // Pages crawled
+    private static final String FAILING = "http://b.example/wiki/7";     // Page the fetcher cannot retrieve
+    private static final int DEFAULT_HOST_LIMIT = 8;    // Simultaneous fetches the default crawler allows per host
+    private static final String MISSING = "q";          // Page the local server answers 404 for
+
+
+
+
+    public static void main(String [] args) throws Exception {
+        fakeFetcher();
+        realSockets();
+        System.out.println("CrawlerTest passed");
+    }
+
+
+
+
+    /**
+     * Crawl through a Fetcher that records each host's simultaneous fetches and fails one page
+     */
+    private static void fakeFetcher() throws Exception {
+        Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> peak = new ConcurrentHashMap<>();
+        Crawler.Fetcher fetcher = url -> {
+            String host = url.substring(0, url.indexOf("/wiki"));
+            int now = active.computeIfAbsent(host, h -> new AtomicInteger()).incrementAndGet();
+            peak.computeIfAbsent(host, h -> new AtomicInteger()).accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(10);
+                if(url.equals(FAILING)) throw new IOException("Unreachable " + url);
+                return "<html><body><p>page " + url.substring(url.lastIndexOf('/') + 1) + " crawler</p></body></html>";
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            } finally {
+                active.get(host).decrementAndGet();
+            }
+        };
+
+        String [] urls = new String[PAGE_COUNT];
+        for(int i = 0; i < urls.length; i++){
+            urls[i] = ((i % 2 == 0) ? "http://a.example" : "http://b.example") + "/wiki/" + i;
+        }
+        IDF.clear();
+        URL [] results = new Crawler(fetcher, HOST_LIMIT, 4).crawl(urls);
+
+        check(results.length == urls.length, "one slot per address");
+        for(int i = 0; i < urls.length; i++){
+            if(urls[i].equals(FAILING)) {
+                check(results[i] == null, "failed page leaves a null slot");
+            } else {
+                check(results[i] != null && results[i].getUrl().equals(urls[i]), "slot " + i + " keeps crawl order");
+            }
+        }
+        check(IDF.getURLCount() == PAGE_COUNT - 1, "dropped page is not counted in the IDF table");
+        for(Map.Entry<String, AtomicInteger> entry : peak.entrySet()){
+            check(entry.getValue().get() <= HOST_LIMIT, entry.getKey() + " stays within its limit");
+        }
+    }
+
+
+
+
+    /**
+     * Crawl a local HttpServer with the default crawler, addressing it as both localhost and 127.0.0.1 so the two
+     * names are limited as separate hosts. The server holds each request briefly and records how many are open per
+     * Host header, and answers 404 for one page
+     */
+    private static void realSockets() throws Exception {
+        Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> peak = new ConcurrentHashMap<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        ExecutorService handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.createContext("/wiki/", exchange -> {
+            String host = exchange.getRequestHeaders().getFirst("Host");
+            host = host.substring(0, host.lastIndexOf(':'));
+            int now = active.computeIfAbsent(host, h -> new AtomicInteger()).incrementAndGet();
+            peak.computeIfAbsent(host, h -> new AtomicInteger()).accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(30);
+                String path = exchange.getRequestURI().getPath();
+                String name = path.substring(path.lastIndexOf('/') + 1);
+                if(name.equals(MISSING)) respond(exchange, 404, "<html><body><p>missing</p></body></html>");
+                else respond(exchange, 200, wikipediaPage(name));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.get(host).decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            int port = server.getAddress().getPort();
+            String [] urls = new String[PAGE_COUNT];
+            for(int i = 0; i < urls.length; i++){
+                String host = (i % 2 == 0) ? "localhost" : "127.0.0.1";
+                urls[i] = "http://" + host + ":" + port + "/wiki/" + (char)('a' + i / 2);
+            }
+            IDF.clear();
+            URL [] results = new Crawler().crawl(urls);
+
+            for(int i = 0; i < urls.length; i++){
+                if(urls[i].endsWith("/" + MISSING)) {
+                    check(results[i] == null, "page answered 404 leaves a null slot");
+                } else {
+                    boolean kept = results[i] != null && results[i].getUrl().equals(urls[i]);
+                    check(kept, "slot " + i + " keeps crawl order");
+                }
+            }
+            URL first = results[0];
+            check(hasWord(first, "articlea") && hasWord(first, "geysers"), "paragraph words are counted");
+            check(!hasWord(first, "sidebar") && !hasWord(first, "navigation"), "words outside paragraphs are not");
+            check(peak.size() == 2, "each host name reaches the server");
+            for(Map.Entry<String, AtomicInteger> entry : peak.entrySet()){
+                check(entry.getValue().get() <= DEFAULT_HOST_LIMIT, entry.getKey() + " stays within its limit");
+            }
+        } finally {
+            server.stop(0);
+            handlers.shutdown();
+        }
+    }
+
+
+
+
+    /**
+     * Canned HTML laid out like a Wikipedia article, with navigation and an infobox around the paragraphs
+     * @param name name of the article, a single letter
+     * @return the article's HTML
+     */
+    private static String wikipediaPage(String name){
+        return "<!DOCTYPE html><html><head><title>Article " + name + " - Wikipedia</title></head><body>"
+                + "<div id=\"mw-navigation\"><a href=\"/wiki/Main_Page\">navigation</a></div>"
+                + "<div id=\"content\"><h1 id=\"firstHeading\">Article " + name + "</h1>"
+                + "<div id=\"mw-content-text\"><div class=\"mw-parser-output\">"
+                + "<table class=\"infobox\"><tr><td>sidebar</td></tr></table>"
+                + "<p><b>Article" + name + "</b> describes geysers.</p><p>Geysers erupt.</p>"
+                + "</div></div></div></body></html>";
+    }
+
+
+
+
+    /**
+     * Send an HTML response
+     * @param exchange request answered
+     * @param status HTTP status code
+     * @param html response body
+     * @throws IOException if the response cannot be written
+     */
+    private static void respond(HttpExchange exchange, int status, String html) throws IOException {
+        byte [] body = html.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+
+
+
+    /**
+     * Whether a page's tree holds a word
+     * @param url the page
+     * @param word word looked for
+     * @return true if the word has a frequency in the page's tree
+     */
+    private static boolean hasWord(URL url, String word){
+        BTree tree = url.getTree();
+        return tree.search(tree.getRoot(), TermDictionary.lookup(word)) > 0;
+    }
+
+
+
+
+    /**
+     * Fail the test unless a condition holds
+     * @param condition condition checked
+     * @param message what the condition means
+     */
+    private static void check(boolean condition, String message){
+        if(!condition) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Checks that ParallelDBSCAN labels a fixed corpus exactly as the sequential DBSCAN does, on a corpus large enough to
+ * be split across the fork-join pool
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import java.util.Random;
+
+public class DBSCANTest {
+    private static final int PAGES = 3000;          // Web pages in the corpus
+    private static final int TOPICS = 40;           // Groups of pages sharing words, clusters at a middling eps
+
+
+
+
+    public static void main(String [] args) throws Exception {
+        // Each page mixes common words with words of its topic, seeded so every run builds the same corpus
+        Random random = new Random(7);
+        URL [] corpus = new URL[PAGES];
+        for(int i0 = 0; i0 < PAGES; i0++){
+            int topic = random.nextInt(TOPICS);
+            TermFrequencyMap wordFreq = new TermFrequencyMap();
+            for(int i1 = 0; i1 < 30; i1++){
+                String word = (random.nextInt(2) == 0) ? "w" + random.nextInt(400)
+                                                       : "t" + topic + "_" + random.nextInt(15);
+                wordFreq.increment(word.toCharArray(), 0, word.length());
+            }
+            corpus[i0] = new URL("https://example.org/wiki/" + i0, wordFreq);
+        }
+
+        // One cluster of everything, a cluster per topic, and mostly noise
+        for(double eps : new double[] {0.02, 0.05, 0.2}){
+            NeighborhoodGraph graph = NeighborhoodGraph.build(corpus, eps);
+            for(int minPts : new int[] {2, 4, 8}){
+                // DBSCAN only labels the pages it has not labeled yet
+                for(URL page : corpus) page.setLabel(null);
+                DBSCAN.dbScan(graph, minPts);
+                int [] labels = ParallelDBSCAN.cluster(graph, minPts);
+                for(int i2 = 0; i2 < PAGES; i2++){
+                    check(labels[i2] == corpus[i2].getLabel(), "page " + i2 + " labeled alike, eps " + eps
+                          + " minPts " + minPts);
+                }
+            }
+        }
+        System.out.println("DBSCANTest passed");
+    }
+
+
+
+
+    /**
+     * Fail the test unless a condition holds
+     * @param condition condition checked
+     * @param message what the condition means
+     */
+    private static void check(boolean condition, String message){
+        if(!condition) throw new AssertionError(message);
+    }
+}
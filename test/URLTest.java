@@ -0,0 +1,47 @@
+/**
+ * Checks that adding text to a web page's tree merges it with the words already there, counting the page once in the
+ * IDF table and each word at most once
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+public class URLTest {
+    private static final String PAGE = "https://en.wikipedia.org/wiki/Brown_bear";      // Web page built
+
+
+
+
+    public static void main(String [] args) throws Exception {
+        URL page = new URL(PAGE, "grizzly salmon salmon");
+        check(IDF.getURLCount() == 1, "new page counted");
+        check(IDF.wordAppearances("salmon") == 1, "word counted once per page");
+
+        // More text for the same page, one old word and one new
+        page.createTree("salmon river");
+        check(IDF.getURLCount() == 1, "page not counted again");
+        check(IDF.wordAppearances("salmon") == 1, "old word not counted again");
+        check(IDF.wordAppearances("river") == 1, "new word counted");
+        check(IDF.wordAppearances("grizzly") == 1, "untouched word kept");
+
+        BTree tree = page.getTree();
+        check(tree.getTotalKeyCount() == 3, "one key per distinct word");
+        check(tree.search(tree.getRoot(), TermDictionary.lookup("salmon")) == 3, "frequencies summed");
+        check(tree.search(tree.getRoot(), TermDictionary.lookup("river")) == 1, "new word inserted");
+        check(page.getVector().getTerms().length == 3, "vector rebuilt with the new word");
+        System.out.println("URLTest passed");
+    }
+
+
+
+
+    /**
+     * Fail the test unless a condition holds
+     * @param condition condition checked
+     * @param message what the condition means
+     */
+    private static void check(boolean condition, String message){
+        if(!condition) throw new AssertionError(message);
+    }
+}
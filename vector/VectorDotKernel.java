@@ -0,0 +1,45 @@
+/**
+ * Gather dot product kernel of AllPairsSimilarity on the JDK Vector API, summing in float lanes of the platform's
+ * preferred width. It lives in its own source root, compiled only where the incubator module is wanted, since
+ * compiling and running it needs --add-modules jdk.incubator.vector. AllPairsSimilarity loads it by name when asked
+ * for a vectorized engine, and falls back to scalar loops when it is missing or does not link.
+ *
+ * @author Tonia Sanzo
+ * @version 1.0
+ * @since October 2026
+ */
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorDotKernel implements AllPairsSimilarity.Kernel {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;     // Lanes per step
+
+
+
+
+    /**
+     * Gather the dense row at the column's terms and sum the products
+     * @param row dense row, indexed by term ID
+     * @param terms packed term IDs
+     * @param weights packed term weights
+     * @param from first term of the column
+     * @param to term after the column's last
+     * @return dot product
+     */
+    @Override
+    public double dot(float [] row, int [] terms, float [] weights, int from, int to){
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = from;
+        for(int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()){
+            FloatVector gathered = FloatVector.fromArray(SPECIES, row, 0, terms, i);
+            sum = gathered.fma(FloatVector.fromArray(SPECIES, weights, i), sum);
+        }
+        double returnVal = sum.reduceLanes(VectorOperators.ADD);
+
+        // Terms past the last full step
+        for(; i < to; i++) returnVal += (double)row[terms[i]] * weights[i];
+        return returnVal;
+    }
+}